@@ -0,0 +1,21 @@
+#!/bin/bash
+set -e
+
+# JMH microbenchmarks of the token server's hot paths (src/jmh/java).
+# Results are JMH JSON, archived per version and commit so releases can be compared.
+# Usage: ./scripts/benchmark-jmh.sh [JMH options, e.g. CryptoUtil -t 4 -prof gc]
+
+VERSION=$(./mvnw -q help:evaluate -Dexpression=project.version -DforceStdout)
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+OUT_DIR=target/jmh
+RESULT="$OUT_DIR/jmh-$VERSION-$COMMIT-$(date +%Y%m%d%H%M%S).json"
+
+echo "⚡ JMH Benchmarks ($VERSION @ $COMMIT)"
+echo "======================================="
+
+mkdir -p "$OUT_DIR"
+./mvnw -q -Pbenchmark test-compile exec:exec@jmh -Djmh.args="$* -rf json -rff $(pwd)/$RESULT"
+
+echo ""
+echo "📊 Results: $RESULT"
+echo "Compare two runs with e.g. https://jmh.morethan.io or jq '.[] | {benchmark, params, score: .primaryMetric.score}'"
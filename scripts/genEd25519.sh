@@ -0,0 +1,3 @@
+openssl genpkey -algorithm ed25519 -out private_key.pem
+
+openssl pkey -in private_key.pem -pubout -outform PEM -out public_key.pem
@@ -0,0 +1,106 @@
+package com.htv.oauth2.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+/**
+ * Wires beans by hand so the benchmarks measure the code itself, without a Quarkus
+ * container. Fields and lifecycle methods are package-private in the beans, hence reflection.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Set a field the container would inject or fill from config
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = findField(target.getClass(), fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Call a no-arg lifecycle or private method, e.g. the bean's @PostConstruct init()
+     */
+    static Object invoke(Object target, String methodName, Object... args) {
+        try {
+            Method method = findMethod(target.getClass(), methodName, args.length);
+            method.setAccessible(true);
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(methodName + " failed", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call " + methodName + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Fresh key pair for a JWS algorithm, written as PEM files the way scripts/gen*.sh do
+     */
+    static Path writeKeyPair(String algorithm) throws IOException, GeneralSecurityException {
+        KeyPair keyPair = switch (algorithm) {
+            case "RS256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                yield generator.generateKeyPair();
+            }
+            case "ES256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                yield generator.generateKeyPair();
+            }
+            case "EdDSA" -> KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            default -> throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+        };
+
+        Path dir = Files.createTempDirectory("jmh-keys");
+        dir.toFile().deleteOnExit();
+        writePem(dir.resolve("private_key.pem"), "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+        writePem(dir.resolve("public_key.pem"), "PUBLIC KEY", keyPair.getPublic().getEncoded());
+        return dir;
+    }
+
+    private static void writePem(Path file, String type, byte[] der) throws IOException {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        Files.writeString(file, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+        file.toFile().deleteOnExit();
+    }
+
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // try superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+
+    private static Method findMethod(Class<?> type, String name, int parameterCount) throws NoSuchMethodException {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == parameterCount) {
+                    return method;
+                }
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+}
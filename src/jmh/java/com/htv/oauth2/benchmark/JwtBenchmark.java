@@ -0,0 +1,75 @@
+package com.htv.oauth2.benchmark;
+
+import com.htv.oauth2.config.JwtConfig;
+import com.htv.oauth2.util.JwtKeySet;
+import com.htv.oauth2.util.JwtSigner;
+import com.htv.oauth2.util.JwtUtil;
+import org.jose4j.jwt.JwtClaims;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token signing (token endpoint) and verification (local introspection) per key type
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final Set<String> SCOPES = Set.of("openid", "profile", "email", "offline_access");
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    String algorithm;
+
+    private JwtUtil jwtUtil;
+    private String accessToken;
+
+    @Setup
+    public void setup() throws Exception {
+        Path keys = BenchmarkSupport.writeKeyPair(algorithm);
+
+        JwtConfig jwtConfig = new JwtConfig();
+        BenchmarkSupport.inject(jwtConfig, "issuer", "https://auth.example.com");
+        BenchmarkSupport.inject(jwtConfig, "privateKeyLocation", keys.resolve("private_key.pem").toString());
+        BenchmarkSupport.inject(jwtConfig, "publicKeyLocation", keys.resolve("public_key.pem").toString());
+        BenchmarkSupport.inject(jwtConfig, "signatureAlgorithm", algorithm);
+        BenchmarkSupport.inject(jwtConfig, "accessTokenExpiry", 3600L);
+        BenchmarkSupport.inject(jwtConfig, "refreshTokenExpiry", 86400L);
+
+        JwtKeySet jwtKeySet = new JwtKeySet();
+        BenchmarkSupport.inject(jwtKeySet, "jwtConfig", jwtConfig);
+        BenchmarkSupport.inject(jwtKeySet, "configuredKeyId", Optional.of("bench"));
+        BenchmarkSupport.inject(jwtKeySet, "additionalKeyLocations", Optional.empty());
+        BenchmarkSupport.invoke(jwtKeySet, "init");
+
+        JwtSigner jwtSigner = new JwtSigner();
+        BenchmarkSupport.inject(jwtSigner, "jwtConfig", jwtConfig);
+        BenchmarkSupport.inject(jwtSigner, "jwtKeySet", jwtKeySet);
+        BenchmarkSupport.invoke(jwtSigner, "init");
+
+        jwtUtil = new JwtUtil();
+        BenchmarkSupport.inject(jwtUtil, "issuer", "https://auth.example.com");
+        BenchmarkSupport.inject(jwtUtil, "accessTokenExpiry", 3600L);
+        BenchmarkSupport.inject(jwtUtil, "jwtSigner", jwtSigner);
+        BenchmarkSupport.inject(jwtUtil, "jwtKeySet", jwtKeySet);
+
+        accessToken = generateAccessToken();
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken("6f1c2a9e-4b7d-4e21-9a3f-2c8d5e7b1a40", "alice", "client_bench", SCOPES);
+    }
+
+    @Benchmark
+    public JwtClaims verifyAccessToken() throws Exception {
+        return jwtUtil.verifyAccessToken(accessToken);
+    }
+}
@@ -0,0 +1,65 @@
+package com.htv.oauth2.benchmark;
+
+import com.htv.oauth2.service.security.Argon2idPasswordHasher;
+import com.htv.oauth2.service.security.BcryptPasswordHasher;
+import com.htv.oauth2.service.security.PasswordHashingExecutor;
+import com.htv.oauth2.service.security.PasswordService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password verification on login, through the hashing executor as in production,
+ * at the configured (uncalibrated) defaults; the KDF dominates, so this is reported as time per call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordServiceBenchmark {
+
+    @Param({"bcrypt", "argon2id"})
+    public String algorithm;
+
+    private PasswordService passwordService;
+    private String hashedPassword;
+
+    @Setup
+    public void setup() {
+        PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor();
+        BenchmarkSupport.inject(hashingExecutor, "meterRegistry", new SimpleMeterRegistry());
+        BenchmarkSupport.inject(hashingExecutor, "workerThreads", Optional.empty());
+        BenchmarkSupport.inject(hashingExecutor, "queueCapacity", 2);
+        BenchmarkSupport.inject(hashingExecutor, "maxWaitMs", 10_000L);
+        BenchmarkSupport.inject(hashingExecutor, "retryAfterSeconds", 1L);
+        BenchmarkSupport.invoke(hashingExecutor, "init");
+
+        BcryptPasswordHasher bcryptHasher = new BcryptPasswordHasher();
+        BenchmarkSupport.inject(bcryptHasher, "minCost", 10);
+        Argon2idPasswordHasher argon2idHasher = new Argon2idPasswordHasher();
+        BenchmarkSupport.inject(argon2idHasher, "memoryKib", 19456);
+        BenchmarkSupport.inject(argon2idHasher, "minIterations", 2);
+        BenchmarkSupport.inject(argon2idHasher, "parallelism", 1);
+
+        passwordService = new PasswordService();
+        BenchmarkSupport.inject(passwordService, "hashingExecutor", hashingExecutor);
+        BenchmarkSupport.inject(passwordService, "bcryptHasher", bcryptHasher);
+        BenchmarkSupport.inject(passwordService, "argon2idHasher", argon2idHasher);
+        BenchmarkSupport.inject(passwordService, "algorithm", algorithm);
+        hashedPassword = passwordService.hashPassword("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return passwordService.verifyPassword("correct horse battery staple", hashedPassword);
+    }
+
+    @Benchmark
+    public boolean verifyWrongPassword() {
+        return passwordService.verifyPassword("Tr0ub4dor&3", hashedPassword);
+    }
+}
@@ -0,0 +1,75 @@
+package com.htv.oauth2.benchmark;
+
+import com.htv.oauth2.dto.ratelimit.RateLimitResult;
+import com.htv.oauth2.service.ratelimit.AbstractRateLimitService;
+import io.github.bucket4j.BucketConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AbstractRateLimitService.checkLimit against an in-process bucket store, isolating the
+ * Bucket4j bookkeeping from Redis latency. Capacity is high enough that every call is
+ * admitted; the rejected path logs a warning per call and would measure the logger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    private static final int IDENTIFIERS = 10_000;
+
+    private BenchmarkRateLimitService rateLimitService;
+
+    @Setup
+    public void setup() {
+        rateLimitService = new BenchmarkRateLimitService();
+    }
+
+    @Benchmark
+    public RateLimitResult checkLimitSameIdentifier() {
+        return rateLimitService.checkLimit("203.0.113.7");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public RateLimitResult checkLimitSameIdentifierAllCores() {
+        return rateLimitService.checkLimit("203.0.113.7");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public RateLimitResult checkLimitManyIdentifiersAllCores() {
+        return rateLimitService.checkLimit("user-" + ThreadLocalRandom.current().nextInt(IDENTIFIERS));
+    }
+
+    static final class BenchmarkRateLimitService extends AbstractRateLimitService {
+
+        private static final int CAPACITY = Integer.MAX_VALUE / 2;
+
+        BenchmarkRateLimitService() {
+            super(new InMemoryProxyManager(), "bucket:bench:");
+        }
+
+        @Override
+        protected BucketConfiguration createBucketConfiguration() {
+            return BucketConfiguration.builder()
+                    .addLimit(createGreedyBandwidth(CAPACITY, 1))
+                    .build();
+        }
+
+        @Override
+        protected String getServiceName() {
+            return "Benchmark";
+        }
+
+        @Override
+        protected int getCapacity() {
+            return CAPACITY;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.htv.oauth2.benchmark;
+
+import com.htv.oauth2.service.scope.ScopeRegistry;
+import com.htv.oauth2.service.scope.ScopeSet;
+import com.htv.oauth2.util.StringUtil;
+import com.htv.oauth2.util.ValidationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the scope parameter and checking it against the client's allowed scopes,
+ * for plain sets and for registry-backed ScopeSets (bitset subset test)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScopeBenchmark {
+
+    private static final List<String> KNOWN_SCOPES = List.of(
+            "openid", "profile", "email", "address", "phone", "offline_access",
+            "read", "write", "admin", "users.read", "users.write", "clients.read");
+
+    private static final String REQUESTED = "openid profile email offline_access";
+
+    private Set<String> requestedSet;
+    private Set<String> allowedSet;
+    private ScopeSet requestedScopeSet;
+    private ScopeSet allowedScopeSet;
+
+    @Setup
+    public void setup() {
+        // Preload the registry by hand; outside Quarkus it cannot reach the scopes table
+        ScopeRegistry registry = new ScopeRegistry();
+        for (int id = 0; id < KNOWN_SCOPES.size(); id++) {
+            BenchmarkSupport.invoke(registry, "put", id, KNOWN_SCOPES.get(id));
+        }
+        BenchmarkSupport.inject(registry, "loaded", true);
+
+        requestedSet = StringUtil.splitScopes(REQUESTED);
+        allowedSet = Set.copyOf(KNOWN_SCOPES);
+        requestedScopeSet = registry.lookup(requestedSet).orElseThrow();
+        allowedScopeSet = registry.lookup(allowedSet).orElseThrow();
+    }
+
+    @Benchmark
+    public Set<String> splitScopes() {
+        return StringUtil.splitScopes(REQUESTED);
+    }
+
+    @Benchmark
+    public boolean areScopesAllowed() {
+        return ValidationUtil.areScopesAllowed(requestedSet, allowedSet);
+    }
+
+    @Benchmark
+    public boolean areScopesAllowedAgainstScopeSet() {
+        return ValidationUtil.areScopesAllowed(requestedSet, allowedScopeSet);
+    }
+
+    @Benchmark
+    public boolean areScopesAllowedScopeSets() {
+        return ValidationUtil.areScopesAllowed(requestedScopeSet, allowedScopeSet);
+    }
+
+    @Benchmark
+    public boolean splitAndCheck() {
+        return ValidationUtil.areScopesAllowed(StringUtil.splitScopes(REQUESTED), allowedScopeSet);
+    }
+}
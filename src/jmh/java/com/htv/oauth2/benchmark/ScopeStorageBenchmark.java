@@ -0,0 +1,250 @@
+package com.htv.oauth2.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.security.SecureRandom;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scope storage before and after V11, against Postgres in a container (needs Docker).
+ * collection_tables issues the statements Hibernate ran for the EAGER element collections
+ * (one row per scope on insert, a second SELECT on load) and text[] on access tokens;
+ * smallint_array is one row with registry ids, resolved to names in memory.
+ * Token issuance writes an authorization code and an access token; introspection loads
+ * the access token and its client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScopeStorageBenchmark {
+
+    private static final String[] KNOWN_SCOPES = {
+            "openid", "profile", "email", "address", "phone", "offline_access",
+            "read", "write", "admin", "users.read", "users.write", "clients.read"};
+
+    @Param({"collection_tables", "smallint_array"})
+    String layout;
+
+    @Param({"4", "12"})
+    int scopeCount;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private final SecureRandom random = new SecureRandom();
+
+    private PreparedStatement insertCode;
+    private PreparedStatement insertCodeScope;
+    private PreparedStatement insertAccessToken;
+    private PreparedStatement selectAccessToken;
+    private PreparedStatement selectClient;
+    private PreparedStatement selectClientScopes;
+
+    private String clientId;
+    private List<String> scopeNames;
+    private Short[] scopeIds;
+    private byte[] introspectedHash;
+
+    @Setup
+    public void setup() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        scopeNames = List.of(KNOWN_SCOPES).subList(0, scopeCount);
+        scopeIds = new Short[scopeCount];
+        for (short id = 0; id < scopeCount; id++) {
+            scopeIds[id] = id;
+        }
+
+        if ("collection_tables".equals(layout)) {
+            prepareCollectionTables();
+        } else {
+            prepareSmallintArrays();
+        }
+        connection.setAutoCommit(false);
+
+        clientId = "bench-client";
+        insertClient();
+        introspectedHash = issueAccessToken();
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public byte[] issueTokens() throws SQLException {
+        insertCode.setString(1, UUID.randomUUID().toString());
+        insertCode.setString(2, clientId);
+        if ("collection_tables".equals(layout)) {
+            insertCode.executeUpdate();
+            try (ResultSet keys = insertCode.getGeneratedKeys()) {
+                keys.next();
+                long codeId = keys.getLong(1);
+                for (String scope : scopeNames) {
+                    insertCodeScope.setLong(1, codeId);
+                    insertCodeScope.setString(2, scope);
+                    insertCodeScope.addBatch();
+                }
+                insertCodeScope.executeBatch();
+            }
+        } else {
+            insertCode.setArray(3, connection.createArrayOf("smallint", scopeIds));
+            insertCode.executeUpdate();
+        }
+        byte[] tokenHash = issueAccessToken();
+        connection.commit();
+        return tokenHash;
+    }
+
+    @Benchmark
+    public Set<String> introspect() throws SQLException {
+        Set<String> scopes = new HashSet<>();
+        selectAccessToken.setBytes(1, introspectedHash);
+        try (ResultSet token = selectAccessToken.executeQuery()) {
+            token.next();
+            addScopes(token.getArray(2), scopes);
+        }
+
+        Set<String> clientScopes = new HashSet<>();
+        selectClient.setString(1, clientId);
+        try (ResultSet client = selectClient.executeQuery()) {
+            client.next();
+            if ("collection_tables".equals(layout)) {
+                selectClientScopes.setLong(1, client.getLong(1));
+                try (ResultSet rows = selectClientScopes.executeQuery()) {
+                    while (rows.next()) {
+                        clientScopes.add(rows.getString(1));
+                    }
+                }
+            } else {
+                addScopes(client.getArray(2), clientScopes);
+            }
+        }
+        connection.commit();
+        scopes.retainAll(clientScopes);
+        return scopes;
+    }
+
+    private byte[] issueAccessToken() throws SQLException {
+        byte[] tokenHash = new byte[32];
+        random.nextBytes(tokenHash);
+        insertAccessToken.setBytes(1, tokenHash);
+        insertAccessToken.setString(2, clientId);
+        insertAccessToken.setArray(3, "collection_tables".equals(layout)
+                ? connection.createArrayOf("text", scopeNames.toArray())
+                : connection.createArrayOf("smallint", scopeIds));
+        insertAccessToken.setTimestamp(4, Timestamp.from(Instant.now().plusSeconds(3600)));
+        insertAccessToken.executeUpdate();
+        return tokenHash;
+    }
+
+    private void addScopes(Array array, Set<String> scopes) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        for (Object value : values) {
+            // Registry ids resolve in memory, as ScopeSet does
+            scopes.add(value instanceof Number id ? KNOWN_SCOPES[id.intValue()] : (String) value);
+        }
+    }
+
+    private void insertClient() throws SQLException {
+        if ("collection_tables".equals(layout)) {
+            long id;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO clients (client_id) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+                insert.setString(1, clientId);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    id = keys.getLong(1);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO client_scopes (client_id, scope) VALUES (?, ?)")) {
+                for (String scope : List.of(KNOWN_SCOPES)) {
+                    insert.setLong(1, id);
+                    insert.setString(2, scope);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        } else {
+            List<Short> all = new ArrayList<>();
+            for (short i = 0; i < KNOWN_SCOPES.length; i++) {
+                all.add(i);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO clients (client_id, scope_ids) VALUES (?, ?)")) {
+                insert.setString(1, clientId);
+                insert.setArray(2, connection.createArrayOf("smallint", all.toArray()));
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    // Table shapes before V11: side tables for code and client scopes, text[] on access tokens
+    private void prepareCollectionTables() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE clients (id BIGSERIAL PRIMARY KEY, client_id VARCHAR(100) UNIQUE NOT NULL)");
+            ddl.execute("CREATE TABLE client_scopes (client_id BIGINT NOT NULL REFERENCES clients (id), "
+                    + "scope VARCHAR(100) NOT NULL, PRIMARY KEY (client_id, scope))");
+            ddl.execute("CREATE TABLE authorization_codes (id BIGSERIAL PRIMARY KEY, code VARCHAR(255) UNIQUE NOT NULL, "
+                    + "client_id VARCHAR(100) NOT NULL)");
+            ddl.execute("CREATE TABLE authorization_code_scopes (authorization_code_id BIGINT NOT NULL "
+                    + "REFERENCES authorization_codes (id), scope VARCHAR(100) NOT NULL, "
+                    + "PRIMARY KEY (authorization_code_id, scope))");
+            ddl.execute("CREATE TABLE access_tokens (token_hash BYTEA PRIMARY KEY, client_id VARCHAR(100) NOT NULL, "
+                    + "scopes TEXT[] NOT NULL, expires_at TIMESTAMPTZ NOT NULL)");
+        }
+        insertCode = connection.prepareStatement(
+                "INSERT INTO authorization_codes (code, client_id) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+        insertCodeScope = connection.prepareStatement(
+                "INSERT INTO authorization_code_scopes (authorization_code_id, scope) VALUES (?, ?)");
+        insertAccessToken = connection.prepareStatement(
+                "INSERT INTO access_tokens (token_hash, client_id, scopes, expires_at) VALUES (?, ?, ?, ?)");
+        selectAccessToken = connection.prepareStatement(
+                "SELECT client_id, scopes FROM access_tokens WHERE token_hash = ?");
+        selectClient = connection.prepareStatement("SELECT id FROM clients WHERE client_id = ?");
+        selectClientScopes = connection.prepareStatement("SELECT scope FROM client_scopes WHERE client_id = ?");
+    }
+
+    // Table shapes after V11: smallint[] of scope registry ids inline
+    private void prepareSmallintArrays() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE clients (id BIGSERIAL PRIMARY KEY, client_id VARCHAR(100) UNIQUE NOT NULL, "
+                    + "scope_ids SMALLINT[] NOT NULL)");
+            ddl.execute("CREATE TABLE authorization_codes (id BIGSERIAL PRIMARY KEY, code VARCHAR(255) UNIQUE NOT NULL, "
+                    + "client_id VARCHAR(100) NOT NULL, scope_ids SMALLINT[] NOT NULL)");
+            ddl.execute("CREATE TABLE access_tokens (token_hash BYTEA PRIMARY KEY, client_id VARCHAR(100) NOT NULL, "
+                    + "scope_ids SMALLINT[] NOT NULL, expires_at TIMESTAMPTZ NOT NULL)");
+        }
+        insertCode = connection.prepareStatement(
+                "INSERT INTO authorization_codes (code, client_id, scope_ids) VALUES (?, ?, ?)");
+        insertAccessToken = connection.prepareStatement(
+                "INSERT INTO access_tokens (token_hash, client_id, scope_ids, expires_at) VALUES (?, ?, ?, ?)");
+        selectAccessToken = connection.prepareStatement(
+                "SELECT client_id, scope_ids FROM access_tokens WHERE token_hash = ?");
+        selectClient = connection.prepareStatement("SELECT id, scope_ids FROM clients WHERE client_id = ?");
+    }
+}
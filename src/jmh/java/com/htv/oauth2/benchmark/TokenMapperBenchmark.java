@@ -0,0 +1,46 @@
+package com.htv.oauth2.benchmark;
+
+import com.htv.oauth2.dto.response.TokenIntrospectionResponse;
+import com.htv.oauth2.mapper.TokenMapper;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.NumericDate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping verified claims to the introspection response, the last step of local introspection
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenMapperBenchmark {
+
+    private TokenMapper tokenMapper;
+    private JwtClaims claims;
+
+    @Setup
+    public void setup() {
+        tokenMapper = new TokenMapper();
+
+        claims = new JwtClaims();
+        claims.setIssuer("https://auth.example.com");
+        claims.setSubject("6f1c2a9e-4b7d-4e21-9a3f-2c8d5e7b1a40");
+        claims.setAudience("client_bench");
+        claims.setIssuedAtToNow();
+        claims.setExpirationTime(NumericDate.fromSeconds(System.currentTimeMillis() / 1000 + 3600));
+        claims.setGeneratedJwtId();
+        claims.setClaim("scope", "openid profile email offline_access");
+        claims.setClaim("client_id", "client_bench");
+        claims.setClaim("username", "alice");
+        claims.setClaim("token_type", "access_token");
+    }
+
+    @Benchmark
+    public TokenIntrospectionResponse toIntrospectionResponse() throws Exception {
+        return tokenMapper.toIntrospectionResponse(claims);
+    }
+}
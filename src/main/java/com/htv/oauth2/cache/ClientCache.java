@@ -1,68 +1,211 @@
 package com.htv.oauth2.cache;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.htv.oauth2.domain.Client;
 import com.htv.oauth2.service.cache.CacheService;
+import com.htv.oauth2.service.client.ClientSnapshot;
+import com.htv.oauth2.util.CryptoUtil;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands.RedisSubscriber;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+/**
+ * In-process cache of compiled client snapshots (Caffeine region "client-cache").
+ * Admin writes fire {@link ClientChanged}; after commit the entry is evicted locally
+ * and on every other node over Redis pub/sub. While the subscription is down an
+ * eviction could be missed, so lookups bypass the cache until it is re-established.
+ * <p>
+ * Successful secret verifications are remembered in "client-secret-cache" under
+ * HMAC(client_id, presented secret), so repeat calls skip the KDF. Entries are
+ * evicted with the client and only match the stored hash they were verified against.
+ */
 @Slf4j
 @ApplicationScoped
 public class ClientCache {
 
+    private static final String CHANNEL = "oauth2:client-invalidations";
+
     @Inject
-    CacheService cacheService;
+    @CacheName("client-cache")
+    Cache cache;
+
+    @Inject
+    @CacheName("client-secret-cache")
+    Cache verifiedSecrets;
 
     @Inject
-    ObjectMapper objectMapper;
+    CacheService cacheService;
+
+    // Per-process key: verified-secret entries are never shared, so it need not survive restarts
+    private final byte[] hmacKey = randomKey();
+    private final ThreadLocal<Mac> credentialMac = ThreadLocal.withInitial(this::newCredentialMac);
 
-    private static final String CLIENT_PREFIX = "client:";
-    private static final long DEFAULT_TTL = 1800; // 30 minutes
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile RedisSubscriber subscriber;
 
     /**
-     * Cache client
+     * Fired by admin writes; the eviction is broadcast once the transaction commits
      */
-    public void cacheClient(Client client) {
-        try {
-            String key = CLIENT_PREFIX + client.getClientId();
-            String json = objectMapper.writeValueAsString(client);
-            cacheService.put(key, json, DEFAULT_TTL);
-            log.debug("Cached client: {}", client.getClientId());
-        } catch (Exception e) {
-            log.error("Failed to cache client", e);
+    public record ClientChanged(String clientId) {}
+
+    void onStart(@Observes StartupEvent ev) {
+        resubscribe();
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        RedisSubscriber current = subscriber;
+        subscriber = null;
+        if (current != null) {
+            current.unsubscribe();
+        }
+    }
+
+    /**
+     * Cached snapshot, loading on miss. Misses are not cached, so unknown client
+     * ids cannot crowd out real ones.
+     */
+    public Optional<ClientSnapshot> getClient(String clientId, Function<String, Optional<ClientSnapshot>> loader) {
+        if (subscriber == null) {
+            return loader.apply(clientId);
+        }
+
+        CaffeineCache caffeine = cache.as(CaffeineCache.class);
+        CompletableFuture<ClientSnapshot> cached = caffeine.getIfPresent(clientId);
+        if (cached != null) {
+            return Optional.of(cached.join());
+        }
+
+        // Do not cache a load that raced with an eviction, it may predate the change
+        long generation = evictions.get();
+        Optional<ClientSnapshot> loaded = loader.apply(clientId);
+        if (loaded.isPresent() && evictions.get() == generation) {
+            caffeine.put(clientId, CompletableFuture.completedFuture(loaded.get()));
         }
+        return loaded;
     }
 
+    // ============= Verified Secrets =============
+
     /**
-     * Get client from cache
+     * Whether this secret was recently verified against the given stored hash
      */
-    public Optional<Client> getClient(String clientId) {
+    public boolean isSecretVerified(String clientId, String presentedSecret, String storedHash) {
+        if (subscriber == null) {
+            return false;
+        }
+        CompletableFuture<String> cached = verifiedSecrets.as(CaffeineCache.class)
+                .getIfPresent(credentialKey(clientId, presentedSecret));
+        return cached != null && storedHash.equals(cached.join());
+    }
+
+    /**
+     * Remember a successful verification; failures are never cached
+     */
+    public void markSecretVerified(String clientId, String presentedSecret, String storedHash) {
+        if (subscriber == null) {
+            return;
+        }
+        verifiedSecrets.as(CaffeineCache.class)
+                .put(credentialKey(clientId, presentedSecret), CompletableFuture.completedFuture(storedHash));
+    }
+
+    private String credentialKey(String clientId, String presentedSecret) {
+        Mac mac = credentialMac.get();
+        mac.update(clientId.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        // Key prefix lets an eviction drop all entries of one client
+        return clientId + ":" + CryptoUtil.base64Url(mac.doFinal(presentedSecret.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private Mac newCredentialMac() {
         try {
-            String key = CLIENT_PREFIX + clientId;
-            return cacheService.get(key)
-                    .map(json -> {
-                        try {
-                            return objectMapper.readValue(json, Client.class);
-                        } catch (Exception e) {
-                            log.error("Failed to deserialize client", e);
-                            return null;
-                        }
-                    });
-        } catch (Exception e) {
-            log.error("Failed to get cached client", e);
-            return Optional.empty();
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(hmacKey, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
         }
     }
 
+    // ============= Invalidation =============
+
     /**
-     * Invalidate client cache
+     * Invalidate client cache on every node
      */
     public void invalidateClient(String clientId) {
-        String key = CLIENT_PREFIX + clientId;
-        cacheService.delete(key);
+        evict(clientId);
+        cacheService.publish(CHANNEL, clientId);
         log.debug("Invalidated client cache: {}", clientId);
     }
+
+    void onClientChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ClientChanged event) {
+        invalidateClient(event.clientId());
+    }
+
+    // ============= Sync =============
+
+    @Scheduled(every = "${oauth2.client-cache.resubscribe-interval:15s}", identity = "client-cache-resubscribe")
+    void resubscribe() {
+        if (subscriber != null) {
+            return;
+        }
+
+        Optional<RedisSubscriber> subscription = cacheService.subscribe(
+                CHANNEL, this::evict, this::onSubscriptionLost, this::onSubscriptionError);
+        if (subscription.isEmpty()) {
+            log.warn("Client invalidation channel unavailable, client cache bypassed");
+            return;
+        }
+        // Anything cached before may have missed an eviction
+        evictions.incrementAndGet();
+        cache.invalidateAll().await().indefinitely();
+        verifiedSecrets.invalidateAll().await().indefinitely();
+        subscriber = subscription.get();
+        log.info("Client cache subscribed to invalidations");
+    }
+
+    private void evict(String clientId) {
+        evictions.incrementAndGet();
+        // Also called from the pub/sub handler, which must not block
+        cache.invalidate(clientId).subscribe().with(
+                ignored -> {},
+                error -> log.error("Failed to evict client {}", clientId, error));
+        String prefix = clientId + ":";
+        verifiedSecrets.invalidateIf(key -> key instanceof String k && k.startsWith(prefix)).subscribe().with(
+                ignored -> {},
+                error -> log.error("Failed to evict verified secrets of client {}", clientId, error));
+    }
+
+    private void onSubscriptionLost() {
+        subscriber = null;
+        log.warn("Client invalidation subscription ended, will resubscribe");
+    }
+
+    private void onSubscriptionError(Throwable error) {
+        subscriber = null;
+        log.error("Client invalidation subscription failed, will resubscribe", error);
+    }
 }
@@ -0,0 +1,58 @@
+package com.htv.oauth2.cache;
+
+import com.htv.oauth2.service.client.ClientSnapshot;
+import com.htv.oauth2.service.scope.ScopeSet;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * client_credentials tokens for reuse (Caffeine region "client-token-cache"), keyed by
+ * client_id and the normalized scope set. An entry is only handed out until its
+ * refresh-ahead point and only to the client snapshot it was issued for, so a
+ * client change (evicted snapshot) stops reuse without separate invalidation.
+ */
+@Slf4j
+@ApplicationScoped
+public class ClientTokenCache {
+
+    @Inject
+    @CacheName("client-token-cache")
+    Cache cache;
+
+    public record ClientToken(ClientSnapshot issuedFor, String token, String tokenHash,
+                              long issuedAt, Instant expiresAt, Instant refreshAt) {}
+
+    /**
+     * Token for this client and scope set that is still before its refresh-ahead point
+     */
+    public Optional<ClientToken> get(ClientSnapshot client, ScopeSet scopes) {
+        CompletableFuture<ClientToken> cached = cache.as(CaffeineCache.class).getIfPresent(key(client, scopes));
+        if (cached == null) {
+            return Optional.empty();
+        }
+        ClientToken token = cached.join();
+        if (token.issuedFor() != client || !Instant.now().isBefore(token.refreshAt())) {
+            return Optional.empty();
+        }
+        return Optional.of(token);
+    }
+
+    public void put(ClientSnapshot client, ScopeSet scopes, ClientToken token) {
+        cache.as(CaffeineCache.class).put(key(client, scopes), CompletableFuture.completedFuture(token));
+        log.debug("Cached client_credentials token for {} until {}", client.getClientId(), token.refreshAt());
+    }
+
+    private static String key(ClientSnapshot client, ScopeSet scopes) {
+        // Registry ids are ascending, so equal scope sets give equal keys regardless of request order
+        return client.getClientId() + ":" + Arrays.toString(scopes.toIds());
+    }
+}
@@ -5,6 +5,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
+import java.util.Optional;
+
 @Slf4j
 @ApplicationScoped
 public class RateLimitCache {
@@ -13,6 +16,8 @@ public class RateLimitCache {
     CacheService cacheService;
 
     private static final String RATE_LIMIT_PREFIX = "rate_limit:";
+    private static final String LOGIN_FAILURES_PREFIX = RATE_LIMIT_PREFIX + "login_failures:";
+    private static final String LOGIN_LOCK_PREFIX = RATE_LIMIT_PREFIX + "login_lock:";
 
     /**
      * Increment rate limit counter
@@ -48,4 +53,38 @@ public class RateLimitCache {
         String fullKey = RATE_LIMIT_PREFIX + key;
         return cacheService.getTTL(fullKey).orElse(0L);
     }
+
+    // ============= Failed Logins =============
+
+    /**
+     * Count a failed login within a window starting at the first failure; empty if Redis is unreachable
+     */
+    public Optional<Long> recordFailedLogin(String userId, long windowSeconds) {
+        return cacheService.incrementWithExpiry(LOGIN_FAILURES_PREFIX + userId, windowSeconds);
+    }
+
+    /**
+     * Lock logins for the user; true only for the call that set the lock, so a burst of
+     * failures trips it once. The failure count starts over once the lock ends.
+     */
+    public boolean lockLogin(String userId, long lockSeconds) {
+        String lockedUntil = String.valueOf(Instant.now().plusSeconds(lockSeconds).getEpochSecond());
+        if (!cacheService.setIfAbsent(LOGIN_LOCK_PREFIX + userId, lockedUntil, lockSeconds)) {
+            return false;
+        }
+        cacheService.delete(LOGIN_FAILURES_PREFIX + userId);
+        log.debug("Login locked for user {} for {}s", userId, lockSeconds);
+        return true;
+    }
+
+    public boolean isLoginLocked(String userId) {
+        return cacheService.exists(LOGIN_LOCK_PREFIX + userId);
+    }
+
+    /**
+     * Forget failed logins after a successful one
+     */
+    public void clearFailedLogins(String userId) {
+        cacheService.delete(LOGIN_FAILURES_PREFIX + userId);
+    }
 }
@@ -0,0 +1,156 @@
+package com.htv.oauth2.cache;
+
+import com.htv.oauth2.service.cache.CacheService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Slf4j
+@ApplicationScoped
+public class RevocationCache {
+
+    @Inject
+    CacheService cacheService;
+
+    private static final String REVOKED_TOKEN_PREFIX = "revoked_token:";
+    private static final String REVOKED_USER_PREFIX = "revoked_user:";
+    private static final String REVOKED_JTI_PREFIX = "revoked_jti:";
+    private static final String REVOKED_JTI_INDEX = "revoked_jtis"; // sorted set jti -> exp, for rebuilds
+    private static final String REVOKED_USER_INDEX = "revoked_users"; // sorted set user id -> revoked-at, for rebuilds
+    private static final long USER_REVOCATION_TTL = 86400; // longest access token validity a client can register
+
+    /**
+     * Mark a single access token as revoked until it expires
+     */
+    public void markTokenRevoked(String tokenHash, Instant expiresAt) {
+        long ttl = Math.max(1, expiresAt.getEpochSecond() - Instant.now().getEpochSecond());
+        cacheService.put(REVOKED_TOKEN_PREFIX + tokenHash, "1", ttl);
+        log.debug("Marked token revoked for {}s", ttl);
+    }
+
+    /**
+     * Deny-list the jti of a stateless access token until it expires.
+     * The marker serves lookups; the sorted set lets a node rebuild the list,
+     * since stateless tokens have no database row.
+     */
+    public void markJtiRevoked(String jti, Instant expiresAt) {
+        long now = Instant.now().getEpochSecond();
+        long ttl = Math.max(1, expiresAt.getEpochSecond() - now);
+        cacheService.put(REVOKED_JTI_PREFIX + jti, "1", ttl);
+        cacheService.addScored(REVOKED_JTI_INDEX, jti, expiresAt.getEpochSecond());
+        cacheService.removeByScore(REVOKED_JTI_INDEX, Double.NEGATIVE_INFINITY, now);
+        log.debug("Marked jti revoked for {}s", ttl);
+    }
+
+    /**
+     * Unexpired deny-listed jtis with their exp; empty if Redis is unreachable
+     */
+    public Optional<Map<String, Long>> getRevokedJtis() {
+        return cacheService.rangeByScore(REVOKED_JTI_INDEX, Instant.now().getEpochSecond(), Double.POSITIVE_INFINITY)
+                .map(members -> {
+                    Map<String, Long> jtis = new HashMap<>();
+                    members.forEach((jti, exp) -> jtis.put(jti, exp.longValue()));
+                    return jtis;
+                });
+    }
+
+    /**
+     * Mark every token issued to the user up to now as revoked
+     */
+    public void markUserRevoked(String userId) {
+        long now = Instant.now().getEpochSecond();
+        cacheService.put(REVOKED_USER_PREFIX + userId, String.valueOf(now), USER_REVOCATION_TTL);
+        cacheService.addScored(REVOKED_USER_INDEX, userId, now);
+        cacheService.removeByScore(REVOKED_USER_INDEX, Double.NEGATIVE_INFINITY, now - USER_REVOCATION_TTL);
+        log.debug("Marked all tokens revoked for user: {}", userId);
+    }
+
+    /**
+     * Users revoked within the marker TTL with their revoked-at; empty if Redis is unreachable
+     */
+    public Optional<Map<String, Long>> getRevokedUsers() {
+        long since = Instant.now().getEpochSecond() - USER_REVOCATION_TTL;
+        return cacheService.rangeByScore(REVOKED_USER_INDEX, since, Double.POSITIVE_INFINITY)
+                .map(members -> {
+                    Map<String, Long> users = new HashMap<>();
+                    members.forEach((userId, revokedAt) -> users.put(userId, revokedAt.longValue()));
+                    return users;
+                });
+    }
+
+    /**
+     * Resolve revocation state of a token with one Redis round trip
+     */
+    public RevocationState getState(TokenRef token) {
+        return getStates(List.of(token)).get(0);
+    }
+
+    /**
+     * Resolve revocation state of many tokens with a single MGET, in request order
+     */
+    public List<RevocationState> getStates(List<TokenRef> tokens) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (TokenRef token : tokens) {
+            keys.add(REVOKED_TOKEN_PREFIX + token.tokenHash());
+            keys.add(REVOKED_USER_PREFIX + token.userId());
+            if (token.jti() != null) {
+                keys.add(REVOKED_JTI_PREFIX + token.jti());
+            }
+        }
+
+        Optional<Map<String, String>> values = cacheService.getAll(keys.toArray(String[]::new));
+        if (values.isEmpty()) {
+            return Collections.nCopies(tokens.size(), RevocationState.UNKNOWN);
+        }
+
+        List<RevocationState> states = new ArrayList<>(tokens.size());
+        for (TokenRef token : tokens) {
+            states.add(resolve(values.get(), token));
+        }
+        return states;
+    }
+
+    private RevocationState resolve(Map<String, String> values, TokenRef token) {
+        if (values.get(REVOKED_TOKEN_PREFIX + token.tokenHash()) != null) {
+            return RevocationState.REVOKED;
+        }
+        if (token.jti() != null && values.get(REVOKED_JTI_PREFIX + token.jti()) != null) {
+            return RevocationState.REVOKED;
+        }
+
+        String userRevokedAt = values.get(REVOKED_USER_PREFIX + token.userId());
+        if (userRevokedAt != null) {
+            try {
+                if (token.issuedAt() <= Long.parseLong(userRevokedAt)) {
+                    return RevocationState.REVOKED;
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Malformed user revocation marker for {}: {}", token.userId(), userRevokedAt);
+                return RevocationState.UNKNOWN;
+            }
+        }
+
+        return RevocationState.ACTIVE;
+    }
+
+    /**
+     * jti is only checked against the deny-list for stateless tokens and may be null
+     */
+    public record TokenRef(String tokenHash, String jti, String userId, long issuedAt) {}
+
+    public enum RevocationState {
+        ACTIVE,
+        REVOKED,
+        UNKNOWN
+    }
+}
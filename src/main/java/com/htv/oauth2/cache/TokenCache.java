@@ -6,7 +6,16 @@ import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Redis store for opaque reference access tokens. Keyed by the token's SHA-256, so a
+ * Redis dump does not leak usable tokens; metadata lives nowhere else and expires with
+ * the token.
+ */
 @Slf4j
 @ApplicationScoped
 public class TokenCache {
@@ -16,44 +25,56 @@ public class TokenCache {
 
     private static final String TOKEN_PREFIX = "token:";
     private static final String REFRESH_TOKEN_PREFIX = "refresh_token:";
-    private static final long DEFAULT_TTL = 3600; // 1 hour
 
     /**
-     * Cache access token metadata
+     * Store a reference token's metadata under its hash; the key expires with the token.
+     * Returns false if Redis did not take the write, in which case the token must not be handed out.
      */
-    public void cacheAccessToken(String token, String userId, String clientId, long ttlSeconds) {
-        try {
-            String key = TOKEN_PREFIX + token;
-            String value = String.format("%s:%s:%d", userId, clientId, Instant.now().getEpochSecond());
-            cacheService.put(key, value, ttlSeconds);
-            log.debug("Cached access token for user: {}", userId);
-        } catch (Exception e) {
-            log.error("Failed to cache access token", e);
+    public boolean storeReferenceToken(String tokenHash, ReferenceToken token) {
+        long ttl = token.expiresAt() - Instant.now().getEpochSecond();
+        if (ttl <= 0) {
+            return false;
         }
+        return cacheService.tryPut(TOKEN_PREFIX + tokenHash, format(token), ttl);
     }
 
     /**
-     * Get cached token info
+     * Reference token metadata, empty if unknown, expired, revoked or Redis is unreachable
      */
-    public TokenCacheInfo getAccessToken(String token) {
-        try {
-            String key = TOKEN_PREFIX + token;
-            return cacheService.get(key)
-                    .map(this::parseTokenInfo)
-                    .orElse(null);
-        } catch (Exception e) {
-            log.error("Failed to get cached token", e);
-            return null;
-        }
+    public Optional<ReferenceToken> getReferenceToken(String tokenHash) {
+        return cacheService.get(TOKEN_PREFIX + tokenHash).flatMap(this::parse);
     }
 
     /**
-     * Invalidate access token
+     * Several reference tokens in one MGET, keyed by hash; unknown hashes are absent
      */
-    public void invalidateAccessToken(String token) {
-        String key = TOKEN_PREFIX + token;
-        cacheService.delete(key);
-        log.debug("Invalidated access token from cache");
+    public Map<String, ReferenceToken> getReferenceTokens(Collection<String> tokenHashes) {
+        Map<String, ReferenceToken> tokens = new HashMap<>();
+        cacheService.getAll(tokenHashes.stream().map(hash -> TOKEN_PREFIX + hash).toArray(String[]::new))
+                .ifPresent(values -> tokenHashes.forEach(hash -> {
+                    String value = values.get(TOKEN_PREFIX + hash);
+                    if (value != null) {
+                        parse(value).ifPresent(token -> tokens.put(hash, token));
+                    }
+                }));
+        return tokens;
+    }
+
+    /**
+     * Delete a reference token, returning what it held
+     */
+    public Optional<ReferenceToken> removeReferenceToken(String tokenHash) {
+        Optional<ReferenceToken> removed = cacheService.getAndDelete(TOKEN_PREFIX + tokenHash).flatMap(this::parse);
+        log.debug("Removed reference token: {}", removed.isPresent());
+        return removed;
+    }
+
+    /**
+     * Delete many reference tokens at once, e.g. all of a user's on revoke-all
+     */
+    public void removeReferenceTokens(Collection<String> tokenHashes) {
+        cacheService.deleteAll(tokenHashes.stream().map(hash -> TOKEN_PREFIX + hash).toList());
+        log.debug("Removed {} reference tokens", tokenHashes.size());
     }
 
     /**
@@ -86,20 +107,42 @@ public class TokenCache {
         log.debug("Invalidated refresh token from cache");
     }
 
-    private TokenCacheInfo parseTokenInfo(String value) {
+    // userId:clientId:iat:exp:scopeIds:username - username last since it is the only free-form field
+    private static String format(ReferenceToken token) {
+        StringBuilder scopeIds = new StringBuilder();
+        for (short id : token.scopeIds()) {
+            if (!scopeIds.isEmpty()) {
+                scopeIds.append(',');
+            }
+            scopeIds.append(id);
+        }
+        return token.userId() + ":" + token.clientId() + ":" + token.issuedAt() + ":" + token.expiresAt()
+                + ":" + scopeIds + ":" + token.username();
+    }
+
+    private Optional<ReferenceToken> parse(String value) {
         try {
-            String[] parts = value.split(":");
-            if (parts.length >= 3) {
-                return new TokenCacheInfo(parts[0], parts[1], Long.parseLong(parts[2]));
+            String[] parts = value.split(":", 6);
+            if (parts.length == 6) {
+                String[] ids = parts[4].isEmpty() ? new String[0] : parts[4].split(",");
+                short[] scopeIds = new short[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    scopeIds[i] = Short.parseShort(ids[i]);
+                }
+                return Optional.of(new ReferenceToken(parts[0], parts[5], parts[1], scopeIds,
+                        Long.parseLong(parts[2]), Long.parseLong(parts[3])));
             }
-        } catch (Exception e) {
-            log.warn("Failed to parse token cache info: {}", value);
+        } catch (NumberFormatException e) {
+            // fall through
         }
-        return null;
+        log.warn("Failed to parse reference token entry");
+        return Optional.empty();
     }
 
-    public record TokenCacheInfo(String userId, String clientId, long cachedAt) {
+    /**
+     * Everything introspection needs for an opaque reference token; times in epoch seconds
+     */
+    public record ReferenceToken(String userId, String username, String clientId, short[] scopeIds,
+                                 long issuedAt, long expiresAt) {
     }
 }
-
-
@@ -0,0 +1,311 @@
+package com.htv.oauth2.cache;
+
+import com.htv.oauth2.repository.UserRepository;
+import com.htv.oauth2.service.cache.CacheService;
+import com.htv.oauth2.util.BloomFilter;
+import com.htv.oauth2.util.StringUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands.RedisSubscriber;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-process Bloom filter of normalized (trimmed, lower-cased) usernames and emails.
+ * A definite miss answers "no such user" without a database round trip, which is what
+ * credential-stuffing traffic for unknown accounts mostly hits.
+ * <p>
+ * Registrations and email changes fire {@link UserIdentifiersChanged}; after commit the
+ * new identifiers are added locally and, as hash pairs, on every other node over Redis
+ * pub/sub. Removed identifiers stay in the filter (only costing a database lookup) until
+ * the periodic rebuild. While the subscription is down or the filter is being built for
+ * the first time every lookup goes to the database.
+ * <p>
+ * A node that cannot publish an addition bumps a generation counter in Redis instead
+ * (retrying until Redis takes it); every node rebuilds when it sees the counter move.
+ */
+@Slf4j
+@ApplicationScoped
+public class UserExistenceFilter {
+
+    private static final String CHANNEL = "oauth2:user-identifiers";
+    private static final String GENERATION_KEY = "oauth2:user-identifiers:generation";
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "oauth2.user-filter.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "oauth2.user-filter.expected-insertions", defaultValue = "100000")
+    long expectedInsertions;
+
+    @ConfigProperty(name = "oauth2.user-filter.false-positive-rate", defaultValue = "0.01")
+    double falsePositiveRate;
+
+    @ConfigProperty(name = "oauth2.user-filter.max-size-mb", defaultValue = "16")
+    long maxSizeMb;
+
+    private volatile BloomFilter filter;
+    // Filter being rebuilt; adds go to both so nothing committed during the scan is lost
+    private volatile BloomFilter pending;
+    private volatile RedisSubscriber subscriber;
+    private volatile boolean synced;
+    // Generation the current filter was built at, and whether this node still owes a bump
+    private volatile long generation;
+    private volatile boolean generationBumpPending;
+
+    private final AtomicLong removedSinceRebuild = new AtomicLong();
+    private Counter absentCounter;
+    private Counter presentCounter;
+    private Counter falsePositiveCounter;
+
+    /**
+     * Fired by user writes; the filter is updated on every node once the transaction commits
+     */
+    public record UserIdentifiersChanged(List<String> added, List<String> removed) {}
+
+    void onStart(@Observes StartupEvent ev) {
+        absentCounter = meterRegistry.counter("oauth2.user_filter.lookups", "result", "absent");
+        presentCounter = meterRegistry.counter("oauth2.user_filter.lookups", "result", "maybe_present");
+        falsePositiveCounter = meterRegistry.counter("oauth2.user_filter.false_positives");
+        Gauge.builder("oauth2.user_filter.size.bytes", this, f -> f.filter != null ? f.filter.sizeInBytes() : 0)
+                .description("Memory used by the user existence Bloom filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.user_filter.entries", this, f -> f.filter != null ? f.filter.insertions() : 0)
+                .description("Approximate identifiers in the user existence filter")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.user_filter.false_positive_rate", this,
+                        f -> f.filter != null ? f.filter.expectedFalsePositiveRate() : 0)
+                .description("Expected false-positive rate at the current fill")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.user_filter.false_positive_rate.target", this, f -> f.falsePositiveRate)
+                .description("Configured false-positive rate the filter is sized for")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.user_filter.stale_entries", removedSinceRebuild, AtomicLong::get)
+                .description("Identifiers removed since the last rebuild that still match")
+                .register(meterRegistry);
+
+        if (enabled) {
+            resync();
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        RedisSubscriber current = subscriber;
+        subscriber = null;
+        if (current != null) {
+            current.unsubscribe();
+        }
+    }
+
+    // ============= Lookup =============
+
+    /**
+     * Whether a user with this username or email may exist; false is definite
+     */
+    public boolean mightExist(String identifier) {
+        BloomFilter current = filter;
+        if (!synced || current == null || identifier == null) {
+            return true;
+        }
+        boolean present = current.mightContain(BloomFilter.hash(StringUtil.normalizeLoginIdentifier(identifier)));
+        (present ? presentCounter : absentCounter).increment();
+        return present;
+    }
+
+    /**
+     * Load a user by username or email unless the filter rules it out
+     */
+    public <T> Optional<T> find(String identifier, Function<String, Optional<T>> loader) {
+        if (!mightExist(identifier)) {
+            return Optional.empty();
+        }
+        Optional<T> loaded = loader.apply(identifier);
+        if (loaded.isEmpty() && synced) {
+            falsePositiveCounter.increment();
+        }
+        return loaded;
+    }
+
+    /**
+     * Existence check that only queries when the filter cannot rule the identifier out
+     */
+    public boolean exists(String identifier, Predicate<String> query) {
+        if (!mightExist(identifier)) {
+            return false;
+        }
+        boolean exists = query.test(identifier);
+        if (!exists && synced) {
+            falsePositiveCounter.increment();
+        }
+        return exists;
+    }
+
+    // ============= Updates =============
+
+    void onUserIdentifiersChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserIdentifiersChanged event) {
+        if (!enabled) {
+            return;
+        }
+        for (String identifier : event.added()) {
+            if (identifier == null) {
+                continue;
+            }
+            long[] hash = BloomFilter.hash(StringUtil.normalizeLoginIdentifier(identifier));
+            put(hash);
+            if (!cacheService.publish(CHANNEL, Long.toHexString(hash[0]) + ":" + Long.toHexString(hash[1]))) {
+                // Other nodes would answer "no such user" for it until their next rebuild
+                log.warn("Failed to publish user identifier, forcing a cluster-wide filter rebuild");
+                generationBumpPending = true;
+                bumpGeneration();
+            }
+        }
+        removedSinceRebuild.addAndGet(event.removed().size());
+    }
+
+    private void bumpGeneration() {
+        if (cacheService.incrementAndGet(GENERATION_KEY).isPresent()) {
+            generationBumpPending = false;
+        }
+    }
+
+    private long readGeneration() {
+        return cacheService.get(GENERATION_KEY).map(Long::parseLong).orElse(0L);
+    }
+
+    private void put(long[] hash) {
+        // Read pending before filter: a rebuild publishes the new filter before clearing pending
+        BloomFilter rebuilding = pending;
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(hash);
+        }
+        if (rebuilding != null && rebuilding != current) {
+            rebuilding.put(hash);
+        }
+    }
+
+    // ============= Sync =============
+
+    /**
+     * Rebuild from the database, dropping removed identifiers and resizing for growth
+     */
+    @Scheduled(every = "${oauth2.user-filter.rebuild-interval:1h}", identity = "user-filter-rebuild",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRebuild() {
+        if (enabled && subscriber != null) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(every = "${oauth2.user-filter.resubscribe-interval:15s}", identity = "user-filter-resubscribe")
+    void resync() {
+        if (!enabled) {
+            return;
+        }
+        if (generationBumpPending) {
+            bumpGeneration();
+        }
+        if (subscriber != null) {
+            // Some node failed to publish an addition: rebuild to pick it up from the database
+            long current = readGeneration();
+            if (current != generation && rebuild()) {
+                generation = current;
+            }
+            return;
+        }
+
+        Optional<RedisSubscriber> subscription = cacheService.subscribe(
+                CHANNEL, this::onMessage, this::onSubscriptionLost, this::onSubscriptionError);
+        if (subscription.isEmpty()) {
+            log.warn("User identifier channel unavailable, user existence filter bypassed");
+            return;
+        }
+        subscriber = subscription.get();
+
+        // Subscribe first so nothing published during the rebuild is missed; read the
+        // generation first too, so a bump during the rebuild triggers another one
+        long current = readGeneration();
+        if (!rebuild()) {
+            subscriber.unsubscribe();
+            subscriber = null;
+            return;
+        }
+        generation = current;
+        synced = true;
+    }
+
+    private synchronized boolean rebuild() {
+        try {
+            long users = QuarkusTransaction.requiringNew().call(userRepository::count);
+            // Two identifiers per user, with 50% headroom for growth until the next rebuild
+            long capacity = Math.max(expectedInsertions, users * 3);
+            BloomFilter rebuilt = BloomFilter.create(capacity, falsePositiveRate, maxSizeMb * 1024 * 1024);
+            pending = rebuilt;
+            long removed = removedSinceRebuild.get();
+
+            QuarkusTransaction.requiringNew().run(() -> userRepository.streamIdentifiers()
+                    .filter(identifier -> identifier != null)
+                    .forEach(identifier -> rebuilt.put(BloomFilter.hash(StringUtil.normalizeLoginIdentifier(identifier)))));
+
+            filter = rebuilt;
+            pending = null;
+            removedSinceRebuild.addAndGet(-removed);
+            log.info("User existence filter rebuilt: {} users, {} KiB, expected false-positive rate {}",
+                    users, rebuilt.sizeInBytes() / 1024, String.format("%.4f", rebuilt.expectedFalsePositiveRate()));
+            return true;
+        } catch (Exception e) {
+            pending = null;
+            log.error("Failed to rebuild user existence filter", e);
+            return false;
+        }
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split(":", 2);
+        if (parts.length != 2) {
+            log.warn("Ignoring malformed user identifier event: {}", message);
+            return;
+        }
+        try {
+            put(new long[]{Long.parseUnsignedLong(parts[0], 16), Long.parseUnsignedLong(parts[1], 16)});
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user identifier event: {}", message);
+        }
+    }
+
+    private void onSubscriptionLost() {
+        synced = false;
+        subscriber = null;
+        log.warn("User identifier subscription ended, will resubscribe");
+    }
+
+    private void onSubscriptionError(Throwable error) {
+        synced = false;
+        subscriber = null;
+        log.error("User identifier subscription failed, will resubscribe", error);
+    }
+}
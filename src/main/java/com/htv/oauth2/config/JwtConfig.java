@@ -1,6 +1,7 @@
 package com.htv.oauth2.config;
 
 import io.quarkus.runtime.StartupEvent;
+import io.smallrye.jwt.algorithm.SignatureAlgorithm;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import lombok.Getter;
@@ -25,6 +26,10 @@ public class JwtConfig {
     @ConfigProperty(name = "mp.jwt.verify.publickey.location", defaultValue = "keys/public_key.pem")
     String publicKeyLocation;
 
+    // RS256, ES256 or EdDSA; must match the key pair above
+    @ConfigProperty(name = "oauth2.jwt.signature-algorithm", defaultValue = "RS256")
+    String signatureAlgorithm;
+
     @ConfigProperty(name = "oauth2.jwt.access-token-expiry", defaultValue = "3600")
     Long accessTokenExpiry;
 
@@ -38,12 +43,17 @@ public class JwtConfig {
         log.info("Issuer: {}", issuer);
         log.info("Sign Key: {}", privateKeyLocation);
         log.info("Verify Key: {}", publicKeyLocation);
+        log.info("Signature Algorithm: {}", signatureAlgorithm);
         log.info("Access Token TTL: {}s", accessTokenExpiry);
         log.info("Refresh Token TTL: {}s", refreshTokenExpiry);
-        log.info("Keys will be loaded by SmallRye JWT on first use");
+        log.info("Signing key will be parsed once by JwtSigner on first use");
         log.info("═══════════════════════════════════════");
     }
 
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return SignatureAlgorithm.fromAlgorithm(signatureAlgorithm);
+    }
+
     private void verifyKeyExists(String location, String keyType) {
         try {
             log.info("Verifying {}: {}", keyType, location);
@@ -1,5 +1,6 @@
 package com.htv.oauth2.domain;
 
+import com.htv.oauth2.util.CryptoUtil;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import lombok.*;
@@ -10,9 +11,9 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+// Range-partitioned by expires_at (V10); database PK is (id, expires_at)
 @Table(name = "access_tokens", indexes = {
-        @Index(name = "idx_access_token_token", columnList = "token"),
-        @Index(name = "idx_access_token_expires", columnList = "expires_at"),
+        @Index(name = "idx_access_token_token_hash", columnList = "token_hash, expires_at", unique = true),
         @Index(name = "idx_access_token_user", columnList = "user_id")
 })
 @Data
@@ -28,9 +29,13 @@ public class AccessToken extends PanacheEntityBase {
     @Column(name = "id", updatable = false, nullable = false)
     private String id;
 
-    @Column(name = "token", unique = true, nullable = false, length = 1000)
+    @Column(name = "token", nullable = false, length = 1000)
     private String token;
 
+    // SHA-256 of token, the only column used for lookups
+    @Column(name = "token_hash", nullable = false, updatable = false, length = 32)
+    private byte[] tokenHash;
+
     @Column(name = "client_id", nullable = false, length = 100)
     private String clientId;
 
@@ -38,9 +43,9 @@ public class AccessToken extends PanacheEntityBase {
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "access_token_scopes", joinColumns = @JoinColumn(name = "access_token_id"))
-    @Column(name = "scope")
+    // Inline smallint[] of registry ids (ScopeRegistry): a collection table cannot reference a partitioned table by id alone
+    @Convert(converter = ScopeSetConverter.class)
+    @Column(name = "scope_ids", nullable = false, columnDefinition = "smallint[]")
     @Builder.Default
     private Set<String> scopes = new HashSet<>();
 
@@ -57,6 +62,9 @@ public class AccessToken extends PanacheEntityBase {
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
+        if (tokenHash == null) {
+            tokenHash = CryptoUtil.sha256Bytes(token);
+        }
     }
 
     public boolean isExpired() {
@@ -0,0 +1,16 @@
+package com.htv.oauth2.domain;
+
+/**
+ * How a client's access tokens are issued and tracked
+ */
+public enum AccessTokenFormat {
+
+    /** Signed JWT with an access_tokens row */
+    JWT,
+
+    /** Signed JWT without a row; revoked through the jti deny-list until exp. Refresh tokens stay persisted. */
+    STATELESS_JWT,
+
+    /** Opaque random token whose metadata lives only in Redis until exp. Refresh tokens stay persisted. */
+    REFERENCE
+}
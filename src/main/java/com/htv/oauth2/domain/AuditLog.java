@@ -53,6 +53,9 @@ public class AuditLog extends PanacheEntityBase {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = Instant.now();
+        // Written asynchronously; keep the time the event happened
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
     }
 }
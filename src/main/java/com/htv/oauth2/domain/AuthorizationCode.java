@@ -41,9 +41,9 @@ public class AuthorizationCode extends PanacheEntityBase {
     @Column(name = "redirect_uri", nullable = false, length = 500)
     private String redirectUri;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "authorization_code_scopes", joinColumns = @JoinColumn(name = "auth_code_id"))
-    @Column(name = "scope")
+    // Registry ids, see ScopeRegistry
+    @Convert(converter = ScopeSetConverter.class)
+    @Column(name = "scope_ids", nullable = false, columnDefinition = "smallint[]")
     @Builder.Default
     private Set<String> scopes = new HashSet<>();
 
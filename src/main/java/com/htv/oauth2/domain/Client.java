@@ -50,9 +50,9 @@ public class Client extends PanacheEntityBase {
     @Builder.Default
     private Set<String> grantTypes = new HashSet<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "client_scopes", joinColumns = @JoinColumn(name = "client_id"))
-    @Column(name = "scope", length = 100)
+    // Registry ids, see ScopeRegistry
+    @Convert(converter = ScopeSetConverter.class)
+    @Column(name = "scope_ids", nullable = false, columnDefinition = "smallint[]")
     @Builder.Default
     private Set<String> scopes = new HashSet<>();
 
@@ -68,6 +68,16 @@ public class Client extends PanacheEntityBase {
     @Builder.Default
     private Boolean autoApprove = false;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "access_token_format", nullable = false, length = 20)
+    @Builder.Default
+    private AccessTokenFormat accessTokenFormat = AccessTokenFormat.JWT;
+
+    // Reuse a still-valid client_credentials token instead of issuing one per request
+    @Column(name = "client_token_reuse", nullable = false)
+    @Builder.Default
+    private Boolean clientTokenReuse = true;
+
     @Column(name = "enabled", nullable = false)
     @Builder.Default
     private Boolean enabled = true;
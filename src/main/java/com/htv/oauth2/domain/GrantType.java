@@ -0,0 +1,33 @@
+package com.htv.oauth2.domain;
+
+import java.util.Optional;
+
+/**
+ * OAuth2 grant types, stored by their protocol value in client_grant_types
+ */
+public enum GrantType {
+
+    AUTHORIZATION_CODE("authorization_code"),
+    REFRESH_TOKEN("refresh_token"),
+    PASSWORD("password"),
+    CLIENT_CREDENTIALS("client_credentials");
+
+    private final String value;
+
+    GrantType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static Optional<GrantType> fromValue(String value) {
+        for (GrantType grantType : values()) {
+            if (grantType.value.equals(value)) {
+                return Optional.of(grantType);
+            }
+        }
+        return Optional.empty();
+    }
+}
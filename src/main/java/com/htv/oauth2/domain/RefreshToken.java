@@ -1,16 +1,22 @@
 package com.htv.oauth2.domain;
 
+import com.htv.oauth2.util.CryptoUtil;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
+import java.util.Set;
 
 @Entity
+// Range-partitioned by expires_at (V10); database PK is (id, expires_at)
 @Table(name = "refresh_tokens", indexes = {
-        @Index(name = "idx_refresh_token_token", columnList = "token"),
-        @Index(name = "idx_refresh_token_expires", columnList = "expires_at")
+        @Index(name = "idx_refresh_token_token_hash", columnList = "token_hash, expires_at", unique = true),
+        @Index(name = "idx_refresh_token_access_token", columnList = "access_token_id, access_token_expires_at"),
+        @Index(name = "idx_refresh_token_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_token_access_token_jti", columnList = "access_token_jti"),
+        @Index(name = "idx_refresh_token_access_token_ref", columnList = "access_token_ref")
 })
 @Data
 @Builder
@@ -25,13 +31,35 @@ public class RefreshToken extends PanacheEntityBase {
     @Column(name = "id", updatable = false, nullable = false)
     private String id;
 
-    @Column(name = "token", unique = true, nullable = false, length = 500)
+    @Column(name = "token", nullable = false, length = 500)
     private String token;
 
+    // SHA-256 of token, the only column used for lookups
+    @Column(name = "token_hash", nullable = false, updatable = false, length = 32)
+    private byte[] tokenHash;
+
+    // Null for stateless access tokens, which have no row
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "access_token_id", nullable = false)
+    @JoinColumn(name = "access_token_id")
     private AccessToken accessToken;
 
+    // Partition key of the access token, second half of the FK to access_tokens
+    @Column(name = "access_token_expires_at", updatable = false)
+    private Instant accessTokenExpiresAt;
+
+    // jti of a stateless access token, deny-listed when this refresh token is rotated or revoked
+    @Column(name = "access_token_jti", length = 36, updatable = false)
+    private String accessTokenJti;
+
+    // Hash of a reference access token, removed from Redis when this refresh token is rotated or revoked
+    @Column(name = "access_token_ref", length = 43, updatable = false)
+    private String accessTokenRef;
+
+    // Granted scopes for rotation when there is no access token row to read them from
+    @Convert(converter = ScopeSetConverter.class)
+    @Column(name = "scope_ids", columnDefinition = "smallint[]", updatable = false)
+    private Set<String> scopes;
+
     @Column(name = "client_id", nullable = false, length = 100)
     private String clientId;
 
@@ -52,6 +80,12 @@ public class RefreshToken extends PanacheEntityBase {
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
+        if (tokenHash == null) {
+            tokenHash = CryptoUtil.sha256Bytes(token);
+        }
+        if (accessTokenExpiresAt == null && accessToken != null) {
+            accessTokenExpiresAt = accessToken.getExpiresAt();
+        }
     }
 
     public boolean isExpired() {
@@ -0,0 +1,30 @@
+package com.htv.oauth2.domain;
+
+import com.htv.oauth2.service.scope.ScopeRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Set;
+
+/**
+ * Stores a scope set as a smallint[] of registry ids; loaded sets are {@link com.htv.oauth2.service.scope.ScopeSet}s
+ */
+@ApplicationScoped
+@Converter
+public class ScopeSetConverter implements AttributeConverter<Set<String>, short[]> {
+
+    @Inject
+    ScopeRegistry scopeRegistry;
+
+    @Override
+    public short[] convertToDatabaseColumn(Set<String> scopes) {
+        return scopeRegistry.of(scopes).toIds();
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(short[] scopeIds) {
+        return scopeRegistry.fromIds(scopeIds);
+    }
+}
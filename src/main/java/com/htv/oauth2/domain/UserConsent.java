@@ -34,9 +34,9 @@ public class UserConsent extends PanacheEntityBase {
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_consent_scopes", joinColumns = @JoinColumn(name = "consent_id"))
-    @Column(name = "scope")
+    // Registry ids, see ScopeRegistry
+    @Convert(converter = ScopeSetConverter.class)
+    @Column(name = "scope_ids", nullable = false, columnDefinition = "smallint[]")
     @Builder.Default
     private Set<String> approvedScopes = new HashSet<>();
 
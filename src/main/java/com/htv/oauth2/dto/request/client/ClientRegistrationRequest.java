@@ -1,5 +1,6 @@
 package com.htv.oauth2.dto.request.client;
 
+import com.htv.oauth2.domain.AccessTokenFormat;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -38,4 +39,8 @@ public class ClientRegistrationRequest {
     private Integer refreshTokenValidity; // in seconds
 
     private Boolean autoApprove;
+
+    private AccessTokenFormat accessTokenFormat;
+
+    private Boolean clientTokenReuse; // reuse client_credentials tokens until near expiry (default true)
 }
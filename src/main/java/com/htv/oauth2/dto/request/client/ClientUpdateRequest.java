@@ -1,5 +1,6 @@
 package com.htv.oauth2.dto.request.client;
 
+import com.htv.oauth2.domain.AccessTokenFormat;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
@@ -39,5 +40,9 @@ public class ClientUpdateRequest {
 
     private Boolean autoApprove;
 
+    private AccessTokenFormat accessTokenFormat;
+
+    private Boolean clientTokenReuse;
+
     private Boolean enabled;
 }
@@ -1,5 +1,6 @@
 package com.htv.oauth2.dto.response;
 
+import com.htv.oauth2.domain.AccessTokenFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.runtime.annotations.RegisterForReflection;
@@ -47,6 +48,12 @@ public class ClientResponse {
     @JsonProperty("auto_approve")
     private Boolean autoApprove;
 
+    @JsonProperty("access_token_format")
+    private AccessTokenFormat accessTokenFormat;
+
+    @JsonProperty("client_token_reuse")
+    private Boolean clientTokenReuse;
+
     private Boolean enabled;
 
     @JsonProperty("created_at")
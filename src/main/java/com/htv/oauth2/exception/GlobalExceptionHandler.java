@@ -63,6 +63,11 @@ public class GlobalExceptionHandler {
             addRateLimitHeaders(builder, ex);
         }
 
+        // Load shedding (e.g. password hashing saturated): tell the client when to retry
+        if (ex.getErrorCode() == ErrorCode.SERVICE_UNAVAILABLE && ex.getMetadata().containsKey("retryAfter")) {
+            builder.header("Retry-After", String.valueOf(ex.getMetadata().get("retryAfter")));
+        }
+
         // Thêm WWW-Authenticate cho 401
         if (ex.getHttpStatus() == 401) {
             builder.header("WWW-Authenticate", "Bearer");
@@ -212,7 +217,10 @@ public class GlobalExceptionHandler {
     }
 
     private void logException(ApplicationException ex) {
-        if (ex.getHttpStatus() >= 500) {
+        if (ex.getErrorCode() == ErrorCode.SERVICE_UNAVAILABLE && ex.getMetadata().containsKey("retryAfter")) {
+            // Deliberate load shedding; a stack trace per rejected request would flood the log
+            log.warn("Service busy [{}]: {}", ex.getCode(), ex.getMessage());
+        } else if (ex.getHttpStatus() >= 500) {
             log.error("Server error [{}]: {}", ex.getCode(), ex.getMessage(), ex);
         } else if (ex.getHttpStatus() >= 400) {
             log.warn("Client error [{}]: {}", ex.getCode(), ex.getMessage());
@@ -1,5 +1,6 @@
 package com.htv.oauth2.mapper;
 
+import com.htv.oauth2.domain.AccessTokenFormat;
 import com.htv.oauth2.domain.Client;
 import com.htv.oauth2.dto.request.client.ClientRegistrationRequest;
 import com.htv.oauth2.dto.request.client.ClientUpdateRequest;
@@ -27,6 +28,8 @@ public class ClientMapper {
                 .accessTokenValidity(client.getAccessTokenValidity())
                 .refreshTokenValidity(client.getRefreshTokenValidity())
                 .autoApprove(client.getAutoApprove())
+                .accessTokenFormat(client.getAccessTokenFormat())
+                .clientTokenReuse(client.getClientTokenReuse())
                 .enabled(client.getEnabled())
                 .createdAt(client.getCreatedAt())
                 .updatedAt(client.getUpdatedAt())
@@ -82,6 +85,10 @@ public class ClientMapper {
                         request.getRefreshTokenValidity() : 86400)
                 .autoApprove(request.getAutoApprove() != null ?
                         request.getAutoApprove() : false)
+                .accessTokenFormat(request.getAccessTokenFormat() != null ?
+                        request.getAccessTokenFormat() : AccessTokenFormat.JWT)
+                .clientTokenReuse(request.getClientTokenReuse() != null ?
+                        request.getClientTokenReuse() : true)
                 .enabled(true)
                 .build();
     }
@@ -113,6 +120,12 @@ public class ClientMapper {
         if (request.getAutoApprove() != null) {
             client.setAutoApprove(request.getAutoApprove());
         }
+        if (request.getAccessTokenFormat() != null) {
+            client.setAccessTokenFormat(request.getAccessTokenFormat());
+        }
+        if (request.getClientTokenReuse() != null) {
+            client.setClientTokenReuse(request.getClientTokenReuse());
+        }
         if (request.getEnabled() != null) {
             client.setEnabled(request.getEnabled());
         }
@@ -1,9 +1,13 @@
 package com.htv.oauth2.mapper;
 
+import com.htv.oauth2.cache.TokenCache.ReferenceToken;
 import com.htv.oauth2.domain.AccessToken;
 import com.htv.oauth2.dto.response.TokenIntrospectionResponse;
 import com.htv.oauth2.dto.response.TokenResponse;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.MalformedClaimException;
+import org.jose4j.jwt.NumericDate;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -39,6 +43,36 @@ public class TokenMapper {
                 .build();
     }
 
+    public TokenIntrospectionResponse toIntrospectionResponse(JwtClaims claims) throws MalformedClaimException {
+        if (claims == null) return null;
+
+        return TokenIntrospectionResponse.builder()
+                .active(true)
+                .scope(claims.getClaimValueAsString("scope"))
+                .clientId(claims.getClaimValueAsString("client_id"))
+                .username(claims.getClaimValueAsString("username"))
+                .tokenType("Bearer")
+                .exp(toEpochSecond(claims.getExpirationTime()))
+                .iat(toEpochSecond(claims.getIssuedAt()))
+                .sub(claims.getSubject())
+                .build();
+    }
+
+    public TokenIntrospectionResponse toIntrospectionResponse(ReferenceToken token, Set<String> scopes) {
+        if (token == null) return null;
+
+        return TokenIntrospectionResponse.builder()
+                .active(true)
+                .scope(joinScopes(scopes))
+                .clientId(token.clientId())
+                .username(token.username())
+                .tokenType("Bearer")
+                .exp(token.expiresAt())
+                .iat(token.issuedAt())
+                .sub(token.userId())
+                .build();
+    }
+
     private long calculateExpiresIn(Instant expiresAt) {
         if (expiresAt == null) {
             return 0;
@@ -57,4 +91,8 @@ public class TokenMapper {
     private Long toEpochSecond(Instant instant) {
         return instant != null ? instant.getEpochSecond() : null;
     }
+
+    private Long toEpochSecond(NumericDate date) {
+        return date != null ? date.getValue() : null;
+    }
 }
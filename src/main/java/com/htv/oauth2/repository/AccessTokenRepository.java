@@ -1,26 +1,67 @@
 package com.htv.oauth2.repository;
 
 import com.htv.oauth2.domain.AccessToken;
+import com.htv.oauth2.util.CryptoUtil;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class AccessTokenRepository implements PanacheRepositoryBase<AccessToken, String> {
 
-    public Optional<AccessToken> findByToken(String token) {
-        return find("token", token).firstResultOptional();
+    // Tables are range-partitioned on expires_at (V10): lookups carry the token's exp so only
+    // one partition is probed instead of all of them. The row's expires_at lies in [exp, exp + 1s):
+    // equal since issuance truncates to seconds, sub-second later on rows written before that.
+    // Older rows still may not match: their JWT exp came from the global validity while the row
+    // got the client's, so a miss is retried over the unexpired partitions.
+
+    public Optional<AccessToken> findByToken(String token, Instant exp) {
+        byte[] tokenHash = CryptoUtil.sha256Bytes(token);
+        return find("tokenHash = ?1 and expiresAt >= ?2 and expiresAt < ?3",
+                tokenHash, exp, exp.plusSeconds(1))
+                .firstResultOptional()
+                .or(() -> find("tokenHash = ?1 and expiresAt > ?2", tokenHash, Instant.now())
+                        .firstResultOptional());
     }
 
     public Optional<AccessToken> findValidToken(String token) {
-        return find("token = ?1 and revoked = false and expiresAt > ?2",
-                token, Instant.now())
+        return find("tokenHash = ?1 and revoked = false and expiresAt > ?2",
+                CryptoUtil.sha256Bytes(token), Instant.now())
                 .firstResultOptional();
     }
 
+    /**
+     * Load many tokens (token -> exp) with one IN query, user fetched in the same statement;
+     * only the partitions spanned by their expiries are probed
+     */
+    public List<AccessToken> findByTokens(Map<String, Instant> expByToken) {
+        List<byte[]> hashes = expByToken.keySet().stream().map(CryptoUtil::sha256Bytes).toList();
+        Instant from = Collections.min(expByToken.values());
+        Instant to = Collections.max(expByToken.values()).plusSeconds(1);
+        List<AccessToken> found = new ArrayList<>(list("select a from AccessToken a left join fetch a.user " +
+                "where a.tokenHash in ?1 and a.expiresAt >= ?2 and a.expiresAt < ?3", hashes, from, to));
+        if (found.size() < hashes.size()) {
+            Set<ByteBuffer> matched = found.stream()
+                    .map(token -> ByteBuffer.wrap(token.getTokenHash()))
+                    .collect(Collectors.toSet());
+            List<byte[]> missing = hashes.stream()
+                    .filter(hash -> !matched.contains(ByteBuffer.wrap(hash)))
+                    .toList();
+            found.addAll(list("select a from AccessToken a left join fetch a.user " +
+                    "where a.tokenHash in ?1 and a.expiresAt > ?2", missing, Instant.now()));
+        }
+        return found;
+    }
+
     public List<AccessToken> findByUserId(String userId) {
         return list("user.id", userId);
     }
@@ -34,8 +75,24 @@ public class AccessTokenRepository implements PanacheRepositoryBase<AccessToken,
                 userId, Instant.now());
     }
 
-    public void revokeToken(String token) {
-        update("revoked = true where token = ?1", token);
+    /**
+     * Hash and expiry of every revoked token that has not expired yet
+     */
+    public List<RevokedToken> findRevokedUnexpired() {
+        return getEntityManager().createQuery(
+                        "select a.tokenHash, a.expiresAt from AccessToken a " +
+                                "where a.revoked = true and a.expiresAt > :now", Object[].class)
+                .setParameter("now", Instant.now())
+                .getResultStream()
+                .map(row -> new RevokedToken((byte[]) row[0], (Instant) row[1]))
+                .toList();
+    }
+
+    /**
+     * Revoke by token and its row's exact expires_at
+     */
+    public void revokeToken(String token, Instant expiresAt) {
+        update("revoked = true where tokenHash = ?1 and expiresAt = ?2", CryptoUtil.sha256Bytes(token), expiresAt);
     }
 
     public void revokeAllByUserId(String userId) {
@@ -46,12 +103,10 @@ public class AccessTokenRepository implements PanacheRepositoryBase<AccessToken,
         update("revoked = true where clientId = ?1", clientId);
     }
 
-    public long deleteExpired() {
-        return delete("expiresAt < ?1 or revoked = true", Instant.now());
-    }
-
     public long countValidTokensByUserId(String userId) {
         return count("user.id = ?1 and revoked = false and expiresAt > ?2",
                 userId, Instant.now());
     }
+
+    public record RevokedToken(byte[] tokenHash, Instant expiresAt) {}
 }
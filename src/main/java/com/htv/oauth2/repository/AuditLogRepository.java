@@ -48,10 +48,6 @@ public class AuditLogRepository implements PanacheRepositoryBase<AuditLog, Strin
         return count("status", status);
     }
 
-    public long deleteOlderThan(Instant cutoff) {
-        return delete("createdAt < ?1", cutoff);
-    }
-
     public List<AuditLog> findByIpAddress(String ipAddress, Page page) {
         return find("ipAddress = ?1 order by createdAt desc", ipAddress)
                 .page(page)
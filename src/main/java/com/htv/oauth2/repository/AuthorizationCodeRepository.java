@@ -25,10 +25,6 @@ public class AuthorizationCodeRepository implements PanacheRepositoryBase<Author
         update("used = true where code = ?1", code);
     }
 
-    public long deleteExpired() {
-        return delete("expiresAt < ?1", Instant.now());
-    }
-
     public long deleteByUserId(String userId) {
         return delete("user.id", userId);
     }
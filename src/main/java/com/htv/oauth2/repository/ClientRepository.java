@@ -19,6 +19,13 @@ public class ClientRepository implements PanacheRepositoryBase<Client, String> {
         return count("clientId", clientId) > 0;
     }
 
+    public int maxRefreshTokenValidity() {
+        Integer max = getEntityManager()
+                .createQuery("select max(c.refreshTokenValidity) from Client c", Integer.class)
+                .getSingleResult();
+        return max != null ? max : 0;
+    }
+
     public List<Client> findAllEnabled() {
         return list("enabled", true);
     }
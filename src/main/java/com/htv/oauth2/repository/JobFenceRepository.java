@@ -0,0 +1,32 @@
+package com.htv.oauth2.repository;
+
+import com.htv.oauth2.service.lease.Lease;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Per-job fencing tokens on the database side of a lease (V16)
+ */
+@ApplicationScoped
+public class JobFenceRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Record that the lease holder is writing; false when a newer holder already has.
+     * Call inside the transaction of the write it guards: the row stays locked until commit,
+     * so an older holder cannot commit after a newer one has started.
+     */
+    public boolean advance(Lease lease) {
+        return entityManager.createNativeQuery("""
+                        INSERT INTO job_fences (name, fencing_token) VALUES (:name, :token)
+                        ON CONFLICT (name) DO UPDATE SET fencing_token = EXCLUDED.fencing_token, updated_at = now()
+                        WHERE job_fences.fencing_token <= EXCLUDED.fencing_token
+                        """)
+                .setParameter("name", lease.name())
+                .setParameter("token", lease.fencingToken())
+                .executeUpdate() == 1;
+    }
+}
@@ -1,6 +1,7 @@
 package com.htv.oauth2.repository;
 
 import com.htv.oauth2.domain.RefreshToken;
+import com.htv.oauth2.util.CryptoUtil;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -11,16 +12,79 @@ import java.util.Optional;
 @ApplicationScoped
 public class RefreshTokenRepository implements PanacheRepositoryBase<RefreshToken, String> {
 
+    // Refresh tokens are opaque, so unlike access tokens there is no exp to pin the partition;
+    // expires_at > now at least skips the partitions that have already expired (V10)
+
     public Optional<RefreshToken> findByToken(String token) {
-        return find("token", token).firstResultOptional();
+        return find("tokenHash = ?1 and expiresAt > ?2", CryptoUtil.sha256Bytes(token), Instant.now())
+                .firstResultOptional();
     }
 
     public Optional<RefreshToken> findValidToken(String token) {
-        return find("token = ?1 and revoked = false and expiresAt > ?2",
-                token, Instant.now())
+        return find("tokenHash = ?1 and revoked = false and expiresAt > ?2",
+                CryptoUtil.sha256Bytes(token), Instant.now())
                 .firstResultOptional();
     }
 
+    /**
+     * Atomically consume a refresh token for rotation.
+     * One statement revokes the refresh token and its access token and returns
+     * what is needed to issue the next pair. Under concurrent use only one caller
+     * gets a row back; the others see revoked = true and get nothing.
+     * For stateless access tokens there is no row to revoke; the jti and scopes
+     * come from the refresh token and the caller deny-lists the jti.
+     */
+    public Optional<ConsumedRefreshToken> consumeForRotation(String token, String clientId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = getEntityManager().createNativeQuery("""
+                        WITH consumed AS (
+                            UPDATE refresh_tokens SET revoked = true
+                            WHERE token_hash = :tokenHash AND client_id = :clientId
+                              AND revoked = false AND expires_at > :now
+                            RETURNING user_id, access_token_id, access_token_expires_at, access_token_jti, access_token_ref, scope_ids
+                        ), revoked_access AS (
+                            UPDATE access_tokens a SET revoked = true
+                            FROM consumed c
+                            WHERE a.id = c.access_token_id AND a.expires_at = c.access_token_expires_at
+                            RETURNING a.id, a.token_hash, a.scope_ids
+                        )
+                        SELECT c.user_id, u.username, a.token_hash,
+                               array_to_string(coalesce(a.scope_ids, c.scope_ids), ' ') AS scope_ids,
+                               c.access_token_jti, c.access_token_ref
+                        FROM consumed c
+                        JOIN users u ON u.id = c.user_id
+                        LEFT JOIN revoked_access a ON a.id = c.access_token_id
+                        WHERE a.id IS NOT NULL OR c.access_token_jti IS NOT NULL OR c.access_token_ref IS NOT NULL
+                        """)
+                .setParameter("tokenHash", CryptoUtil.sha256Bytes(token))
+                .setParameter("clientId", clientId)
+                .setParameter("now", Instant.now())
+                .getResultList();
+
+        return rows.stream()
+                .findFirst()
+                .map(row -> new ConsumedRefreshToken(
+                        (String) row[0],
+                        (String) row[1],
+                        (byte[]) row[2],
+                        parseScopeIds((String) row[3]),
+                        (String) row[4],
+                        (String) row[5]
+                ));
+    }
+
+    private static short[] parseScopeIds(String scopeIds) {
+        if (scopeIds == null || scopeIds.isBlank()) {
+            return new short[0];
+        }
+        String[] parts = scopeIds.trim().split(" ");
+        short[] ids = new short[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ids[i] = Short.parseShort(parts[i]);
+        }
+        return ids;
+    }
+
     public Optional<RefreshToken> findByAccessTokenId(String accessTokenId) {
         return find("accessToken.id", accessTokenId).firstResultOptional();
     }
@@ -34,23 +98,52 @@ public class RefreshTokenRepository implements PanacheRepositoryBase<RefreshToke
     }
 
     public void revokeToken(String token) {
-        update("revoked = true where token = ?1", token);
+        update("revoked = true where tokenHash = ?1 and expiresAt > ?2", CryptoUtil.sha256Bytes(token), Instant.now());
     }
 
     public void revokeByAccessTokenId(String accessTokenId) {
         update("revoked = true where accessToken.id = ?1", accessTokenId);
     }
 
-    public void revokeAllByUserId(String userId) {
-        update("revoked = true where user.id = ?1", userId);
+    /**
+     * Revoke the refresh token issued with a stateless access token
+     */
+    public void revokeByAccessTokenJti(String jti) {
+        update("revoked = true where accessTokenJti = ?1", jti);
+    }
+
+    /**
+     * Revoke the refresh token issued with a reference access token
+     */
+    public void revokeByAccessTokenRef(String tokenHash) {
+        update("revoked = true where accessTokenRef = ?1", tokenHash);
+    }
+
+    /**
+     * Hashes of the reference access tokens still paired with the user's live refresh tokens
+     */
+    public List<String> findActiveAccessTokenRefsByUserId(String userId) {
+        return getEntityManager().createQuery(
+                        "select r.accessTokenRef from RefreshToken r where r.user.id = :userId " +
+                                "and r.accessTokenRef is not null and r.revoked = false and r.expiresAt > :now", String.class)
+                .setParameter("userId", userId)
+                .setParameter("now", Instant.now())
+                .getResultList();
     }
 
-    public long deleteExpired() {
-        return delete("expiresAt < ?1 or revoked = true", Instant.now());
+    public void revokeAllByUserId(String userId) {
+        update("revoked = true where user.id = ?1", userId);
     }
 
     public long countValidByUserId(String userId) {
         return count("user.id = ?1 and revoked = false and expiresAt > ?2",
                 userId, Instant.now());
     }
+
+    /**
+     * accessTokenHash is set for persisted access tokens, accessTokenJti for stateless ones
+     * and accessTokenRef for reference tokens
+     */
+    public record ConsumedRefreshToken(String userId, String username, byte[] accessTokenHash, short[] scopeIds,
+                                       String accessTokenJti, String accessTokenRef) {}
 }
@@ -0,0 +1,49 @@
+package com.htv.oauth2.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only scopes(id, name) table backing the scope registry (see V11 migration)
+ */
+@ApplicationScoped
+public class ScopeRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    public List<ScopeRow> findAll() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT id, name FROM scopes")
+                .getResultList();
+        return rows.stream()
+                .map(row -> new ScopeRow(((Number) row[0]).intValue(), (String) row[1]))
+                .toList();
+    }
+
+    /**
+     * Register a scope under the next free id; concurrent registrations of the same
+     * name (or racing for the same id) are resolved by re-reading
+     */
+    public Optional<Integer> register(String name) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO scopes (id, name)
+                        SELECT coalesce(max(id) + 1, 0), :name FROM scopes
+                        ON CONFLICT DO NOTHING
+                        """)
+                .setParameter("name", name)
+                .executeUpdate();
+
+        @SuppressWarnings("unchecked")
+        List<Number> ids = entityManager.createNativeQuery("SELECT id FROM scopes WHERE name = :name")
+                .setParameter("name", name)
+                .getResultList();
+        return ids.stream().findFirst().map(Number::intValue);
+    }
+
+    public record ScopeRow(int id, String name) {}
+}
@@ -0,0 +1,79 @@
+package com.htv.oauth2.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Daily range partitions of access_tokens / refresh_tokens (see V10)
+ */
+@ApplicationScoped
+public class TokenPartitionRepository {
+
+    public static final String ACCESS_TOKENS = "access_tokens";
+    public static final String REFRESH_TOKENS = "refresh_tokens";
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Days of the existing daily partitions
+     */
+    public Set<LocalDate> findPartitionDays(String table) {
+        List<?> names = entityManager.createNativeQuery("""
+                        SELECT CAST(c.relname AS text)
+                        FROM pg_inherits i
+                                 JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = CAST(:parent AS regclass)
+                          AND c.relname ~ ('^' || :parent || '_p[0-9]{8}$')
+                        """)
+                .setParameter("parent", table)
+                .getResultList();
+        return names.stream()
+                .map(name -> LocalDate.parse(name.toString().substring(table.length() + 2), DateTimeFormatter.BASIC_ISO_DATE))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Create missing partitions for every day in [from, to]; returns how many were created
+     */
+    public int createPartitions(String table, LocalDate from, LocalDate to) {
+        return ((Number) entityManager.createNativeQuery("SELECT create_token_partitions(:parent, :fromDay, :toDay)")
+                .setParameter("parent", table)
+                .setParameter("fromDay", from)
+                .setParameter("toDay", to)
+                .getSingleResult()).intValue();
+    }
+
+    /**
+     * Detach and drop the partition of one day; fails while a foreign key still references it
+     */
+    public void dropPartition(String table, LocalDate day) {
+        String partition = table + "_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+        entityManager.createNativeQuery("ALTER TABLE " + table + " DETACH PARTITION " + partition).executeUpdate();
+        entityManager.createNativeQuery("DROP TABLE " + partition).executeUpdate();
+    }
+
+    /**
+     * Bound how long the DDL of the current transaction waits for its lock
+     */
+    public void setLocalLockTimeout(long millis) {
+        entityManager.createNativeQuery("SELECT set_config('lock_timeout', :timeout, true)")
+                .setParameter("timeout", millis + "ms")
+                .getSingleResult();
+    }
+
+    /**
+     * Rows that fell outside the pre-created range
+     */
+    public long countDefaultPartitionRows(String table) {
+        return ((Number) entityManager.createNativeQuery("SELECT count(*) FROM " + table + "_default")
+                .getSingleResult()).longValue();
+    }
+}
@@ -1,6 +1,7 @@
 package com.htv.oauth2.repository;
 
 import com.htv.oauth2.domain.*;
+import com.htv.oauth2.util.StringUtil;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import io.quarkus.panache.common.Page;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -8,28 +9,49 @@ import jakarta.enterprise.context.ApplicationScoped;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class UserRepository implements PanacheRepositoryBase<User, String> {
 
+    // Username and email match case-insensitively, served by the lower() unique indexes (V15).
+    // Roles are fetched in the same statement instead of a second SELECT for the eager collection.
+
     public Optional<User> findByUsername(String username) {
-        return find("username", username).firstResultOptional();
+        return find("from User u left join fetch u.roles where lower(u.username) = lower(?1)", username.trim())
+                .singleResultOptional();
     }
 
     public Optional<User> findByEmail(String email) {
-        return find("email", email).firstResultOptional();
+        return find("from User u left join fetch u.roles where lower(u.email) = lower(?1)", email.trim())
+                .singleResultOptional();
     }
 
-    public Optional<User> findByUsernameOrEmail(String identifier) {
-        return find("username = ?1 or email = ?1", identifier).firstResultOptional();
+    /**
+     * User by username or email, as typed on the login form. The identifier's shape picks
+     * the column, so this is a single unique-index probe rather than an OR over both.
+     */
+    public Optional<User> findByLoginIdentifier(String identifier) {
+        return StringUtil.isEmailIdentifier(identifier) ? findByEmail(identifier) : findByUsername(identifier);
     }
 
     public boolean existsByUsername(String username) {
-        return count("username", username) > 0;
+        return count("lower(username) = lower(?1)", username.trim()) > 0;
     }
 
     public boolean existsByEmail(String email) {
-        return count("email", email) > 0;
+        return count("lower(email) = lower(?1)", email.trim()) > 0;
+    }
+
+    /**
+     * Username and email of every user, streamed for rebuilding the existence filter
+     */
+    public Stream<String> streamIdentifiers() {
+        return getEntityManager().createQuery("select u.username, u.email from User u", Object[].class)
+                .setHint("org.hibernate.fetchSize", 1000)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()
+                .flatMap(row -> Stream.of((String) row[0], (String) row[1]));
     }
 
     public List<User> findAllEnabled() {
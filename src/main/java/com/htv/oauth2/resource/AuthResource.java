@@ -8,6 +8,8 @@ import com.htv.oauth2.dto.request.mfa.MfaVerifyRequest;
 import com.htv.oauth2.dto.response.*;
 import com.htv.oauth2.mapper.UserMapper;
 import com.htv.oauth2.service.auth.AuthenticationService;
+import com.htv.oauth2.service.client.ClientService;
+import com.htv.oauth2.service.client.ClientSnapshot;
 import com.htv.oauth2.service.mfa.MfaService;
 import com.htv.oauth2.service.token.TokenService;
 import com.htv.oauth2.service.user.UserService;
@@ -40,6 +42,9 @@ public class AuthResource {
     @Inject
     TokenService tokenService;
 
+    @Inject
+    ClientService clientService;
+
     @Inject
     UserService userService;
 
@@ -73,7 +78,7 @@ public class AuthResource {
 
         // --- GIẢ ĐỊNH LOGIC XÁC ĐỊNH CLIENT VÀ SCOPE ---
         // Giả định Client và Scopes Mặc định
-        Client defaultClient = createDefaultClient();
+        ClientSnapshot defaultClient = clientService.compile(createDefaultClient());
         Set<String> defaultScopes = Set.of("profile", "email");
 
         // 2. Generate Tokens
@@ -121,10 +126,11 @@ public class AuthResource {
         );
 
         // --- LOGIC TẠO TOKEN TƯƠNG TỰ LOGIN ---
-        Client defaultClient = new Client();
-        defaultClient.setClientId("default-client-id");
-        defaultClient.setAccessTokenValidity(3600);
-        defaultClient.setRefreshTokenValidity(7200);
+        Client client = new Client();
+        client.setClientId("default-client-id");
+        client.setAccessTokenValidity(3600);
+        client.setRefreshTokenValidity(7200);
+        ClientSnapshot defaultClient = clientService.compile(client);
         Set<String> defaultScopes = Set.of("profile", "email");
 
         // 2. Generate Tokens
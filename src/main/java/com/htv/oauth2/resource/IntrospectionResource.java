@@ -10,6 +10,9 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
 
 @Slf4j
 @Path("/oauth2/introspect")
@@ -23,6 +26,9 @@ public class IntrospectionResource {
     @Inject
     ClientService clientService;
 
+    @ConfigProperty(name = "oauth2.introspection.batch-max-tokens", defaultValue = "100")
+    int batchMaxTokens;
+
     /**
      * Token introspection endpoint
      * POST /oauth2/introspect
@@ -47,4 +53,36 @@ public class IntrospectionResource {
         TokenIntrospectionResponse response = tokenService.introspectToken(token);
         return Response.ok(response).build();
     }
+
+    /**
+     * Batch token introspection endpoint
+     * POST /oauth2/introspect/batch
+     * Repeat the token parameter; responses are returned as an array in the same order.
+     */
+    @POST
+    @Path("/batch")
+    @PermitAll
+    public Response introspectBatch(
+            @FormParam("token") List<String> tokens,
+            @FormParam("client_id") String clientId,
+            @FormParam("client_secret") String clientSecret) {
+
+        // Validate client once for the whole batch
+        clientService.validateClientCredentials(clientId, clientSecret);
+
+        if (tokens == null || tokens.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ErrorResponse.invalidRequest("Missing token parameter"))
+                    .build();
+        }
+
+        if (tokens.size() > batchMaxTokens) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ErrorResponse.invalidRequest("At most " + batchMaxTokens + " tokens per request"))
+                    .build();
+        }
+
+        List<TokenIntrospectionResponse> responses = tokenService.introspectTokens(tokens);
+        return Response.ok(responses).build();
+    }
 }
@@ -0,0 +1,54 @@
+package com.htv.oauth2.resource;
+
+import com.htv.oauth2.util.JwtKeySet;
+import jakarta.annotation.security.PermitAll;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@Slf4j
+@Path("/.well-known/jwks.json")
+@Produces(MediaType.APPLICATION_JSON)
+public class JwksResource {
+
+    @Inject
+    JwtKeySet jwtKeySet;
+
+    @ConfigProperty(name = "oauth2.jwt.jwks-max-age", defaultValue = "300")
+    int maxAge;
+
+    /**
+     * JSON Web Key Set endpoint
+     * GET /.well-known/jwks.json
+     * Answers 304 when If-None-Match matches the current key set.
+     */
+    @GET
+    @PermitAll
+    public Response jwks(@Context Request request) {
+        EntityTag etag = new EntityTag(jwtKeySet.getETag());
+
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(false);
+        cacheControl.setMaxAge(maxAge);
+        cacheControl.getCacheExtension().put("stale-while-revalidate", String.valueOf(maxAge));
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.cacheControl(cacheControl).build();
+        }
+
+        return Response.ok(jwtKeySet.getJwksJson())
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+}
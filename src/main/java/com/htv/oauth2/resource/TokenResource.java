@@ -1,7 +1,6 @@
 package com.htv.oauth2.resource;
 
 import com.htv.oauth2.domain.AuthorizationCode;
-import com.htv.oauth2.domain.Client;
 import com.htv.oauth2.domain.User;
 import com.htv.oauth2.dto.response.ErrorResponse;
 import com.htv.oauth2.dto.response.TokenResponse;
@@ -10,6 +9,7 @@ import com.htv.oauth2.exception.ErrorCode;
 import com.htv.oauth2.service.auth.AuthenticationService;
 import com.htv.oauth2.service.auth.AuthorizationService;
 import com.htv.oauth2.service.client.ClientService;
+import com.htv.oauth2.service.client.ClientSnapshot;
 import com.htv.oauth2.service.token.TokenService;
 import com.htv.oauth2.util.StringUtil;
 import com.htv.oauth2.util.ValidationUtil;
@@ -77,8 +77,9 @@ public class TokenResource {
             }
         }
 
-        // Validate client
-        Client client = clientService.validateClientCredentials(clientId, clientSecret);
+        // Validate client (cached snapshot, no database access)
+        ClientSnapshot client = clientService.validateClientCredentials(clientId, clientSecret);
+        clientService.validateGrantType(client, grantType);
 
         // Handle different grant types
         TokenResponse response = switch (grantType) {
@@ -95,7 +96,7 @@ public class TokenResource {
     }
 
     private TokenResponse handleAuthorizationCodeGrant(
-            String code, String redirectUri, Client client, String codeVerifier) {
+            String code, String redirectUri, ClientSnapshot client, String codeVerifier) {
 
         if (code == null || redirectUri == null) {
             throw new ApplicationException(ErrorCode.INVALID_REQUEST, "Missing code or redirect_uri");
@@ -109,12 +110,12 @@ public class TokenResource {
         // Generate tokens
         return tokenService.generateTokens(
                 authCode.getUser(),
-                authCode.getClient(),
+                client,
                 authCode.getScopes()
         );
     }
 
-    private TokenResponse handleRefreshTokenGrant(String refreshToken, Client client) {
+    private TokenResponse handleRefreshTokenGrant(String refreshToken, ClientSnapshot client) {
         if (refreshToken == null) {
             throw new ApplicationException(ErrorCode.INVALID_REQUEST, "Missing refresh_token");
         }
@@ -123,7 +124,7 @@ public class TokenResource {
     }
 
     private TokenResponse handlePasswordGrant(
-            String username, String password, Client client, String scope) {
+            String username, String password, ClientSnapshot client, String scope) {
 
         if (username == null || password == null) {
             throw new ApplicationException(ErrorCode.INVALID_REQUEST, "Missing username or password");
@@ -141,14 +142,17 @@ public class TokenResource {
         return tokenService.generateTokens(user, client, scopes);
     }
 
-    private TokenResponse handleClientCredentialsGrant(Client client, String scope) {
-        // For client credentials, there's no user
+    private TokenResponse handleClientCredentialsGrant(ClientSnapshot client, String scope) {
+        // For client credentials, there's no user; no scope requested means all registered scopes
         Set<String> scopes = StringUtil.splitScopes(scope);
         if (scopes.isEmpty()) {
-            scopes = Set.of("default");
+            scopes = client.getScopes();
+        }
+
+        if (!ValidationUtil.areScopesAllowed(scopes, client.getScopes())) {
+            throw new ApplicationException(ErrorCode.INVALID_SCOPE, "Requested scopes not allowed for this client");
         }
 
-        // Generate tokens without user
-        throw new UnsupportedOperationException("Client credentials grant not yet implemented");
+        return tokenService.issueClientCredentialsToken(client, scopes);
     }
 }
@@ -1,6 +1,8 @@
 package com.htv.oauth2.scheduler;
 
-import com.htv.oauth2.repository.AuditLogRepository;
+import com.htv.oauth2.service.cleanup.CleanupEngine;
+import com.htv.oauth2.service.cleanup.CleanupTask;
+import com.htv.oauth2.service.lease.LeaseService;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -14,19 +16,26 @@ import java.time.temporal.ChronoUnit;
 public class AuditLogCleanupScheduler {
 
     @Inject
-    AuditLogRepository auditLogRepository;
+    CleanupEngine cleanupEngine;
+
+    @Inject
+    LeaseService leaseService;
 
     /**
      * Clean up old audit logs every day at 2 AM
-     * Keep logs for 90 days
+     * Keep logs for 90 days; runs on the one replica holding the lease
      */
-    @Scheduled(cron = "0 0 2 * * ?", identity = "audit-cleanup")
+    @Scheduled(cron = "0 0 2 * * ?", identity = "audit-cleanup",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
     void cleanupOldAuditLogs() {
-        log.info("Starting audit log cleanup job");
         try {
-            Instant cutoff = Instant.now().minus(90, ChronoUnit.DAYS);
-            long deleted = auditLogRepository.deleteOlderThan(cutoff);
-            log.info("Audit log cleanup completed, deleted {} records", deleted);
+            leaseService.runExclusive("audit-cleanup", lease -> {
+                log.info("Starting audit log cleanup job");
+                Instant cutoff = Instant.now().minus(90, ChronoUnit.DAYS);
+                long deleted = cleanupEngine.run(
+                        new CleanupTask("audit-cleanup", "audit_logs", "created_at", cutoff), lease);
+                log.info("Audit log cleanup completed, deleted {} records", deleted);
+            });
         } catch (Exception e) {
             log.error("Audit log cleanup failed", e);
         }
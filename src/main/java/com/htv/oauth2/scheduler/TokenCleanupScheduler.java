@@ -1,10 +1,12 @@
 package com.htv.oauth2.scheduler;
 
-import com.htv.oauth2.repository.*;
 import com.htv.oauth2.service.auth.AuthorizationService;
+import com.htv.oauth2.service.lease.LeaseService;
 import com.htv.oauth2.service.token.TokenService;
+import io.quarkus.runtime.StartupEvent;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,33 +20,50 @@ public class TokenCleanupScheduler {
     @Inject
     AuthorizationService authorizationService;
 
+    @Inject
+    LeaseService leaseService;
+
+    /**
+     * Make sure upcoming token partitions exist before the first token is issued
+     */
+    void onStart(@Observes StartupEvent ev) {
+        maintainTokenPartitions();
+    }
+
     /**
-     * Clean up expired tokens every hour
+     * Create upcoming and drop expired token partitions every hour
+     * Runs on the one replica holding the lease.
      */
-    @Scheduled(every = "1h", identity = "token-cleanup")
-    void cleanupExpiredTokens() {
-        log.info("Starting token cleanup job");
+    @Scheduled(every = "1h", identity = "token-partition-maintenance",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void maintainTokenPartitions() {
         try {
-            tokenService.cleanupExpiredTokens();
-            log.info("Token cleanup completed successfully");
+            leaseService.runExclusive("token-partition-maintenance", lease -> {
+                log.info("Starting token partition maintenance job");
+                tokenService.maintainTokenPartitions(lease);
+                tokenService.cleanupDefaultPartitions(lease);
+                log.info("Token partition maintenance completed successfully");
+            });
         } catch (Exception e) {
-            log.error("Token cleanup failed", e);
+            log.error("Token partition maintenance failed", e);
         }
     }
 
     /**
      * Clean up expired authorization codes every 15 minutes
+     * Runs on the one replica holding the lease.
      */
-    @Scheduled(every = "15m", identity = "authcode-cleanup")
+    @Scheduled(every = "15m", identity = "authcode-cleanup",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
     void cleanupExpiredAuthorizationCodes() {
-        log.info("Starting authorization code cleanup job");
         try {
-            authorizationService.cleanupExpiredAuthorizationCodes();
-            log.info("Authorization code cleanup completed successfully");
+            leaseService.runExclusive("authcode-cleanup", lease -> {
+                log.info("Starting authorization code cleanup job");
+                authorizationService.cleanupExpiredAuthorizationCodes(lease);
+                log.info("Authorization code cleanup completed successfully");
+            });
         } catch (Exception e) {
             log.error("Authorization code cleanup failed", e);
         }
     }
 }
-
-
@@ -3,11 +3,31 @@ package com.htv.oauth2.service;
 import com.htv.oauth2.domain.AuditLog;
 import com.htv.oauth2.domain.User;
 import com.htv.oauth2.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit trail, written off the request path.
+ * Entries are queued with their event time and a single flusher thread inserts them
+ * in JDBC batches in its own transaction, so an audit write never joins (or rolls back
+ * with) the caller's transaction. When the queue is full the entry is written inline.
+ */
 @Slf4j
 @ApplicationScoped
 public class AuditService {
@@ -15,68 +35,151 @@ public class AuditService {
     @Inject
     AuditLogRepository auditLogRepository;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "oauth2.audit.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "oauth2.audit.flush-interval-ms", defaultValue = "200")
+    long flushIntervalMs;
+
+    @ConfigProperty(name = "quarkus.hibernate-orm.jdbc.statement-batch-size", defaultValue = "20")
+    int batchSize;
+
+    private BlockingQueue<PendingAudit> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Counter flushedCounter;
+    private Counter inlineCounter;
+    private Counter failedCounter;
+
+    void onStart(@Observes StartupEvent ev) {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("oauth2.audit.queue.depth", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+        flushedCounter = meterRegistry.counter("oauth2.audit.flushed");
+        inlineCounter = meterRegistry.counter("oauth2.audit.inline");
+        failedCounter = meterRegistry.counter("oauth2.audit.failed");
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
     /**
      * Log successful action
      */
-    @Transactional
     public void logSuccess(User user, String action, String resource, String ipAddress, String userAgent) {
-        try {
-            AuditLog auditLog = AuditLog.builder()
-                    .user(user)
-                    .action(action)
-                    .resource(resource)
-                    .ipAddress(ipAddress)
-                    .userAgent(userAgent)
-                    .status("SUCCESS")
-                    .build();
-
-            auditLogRepository.persist(auditLog);
-        } catch (Exception e) {
-            log.error("Failed to create audit log", e);
-        }
+        enqueue(new PendingAudit(user.getId(), action, resource, ipAddress, userAgent,
+                "SUCCESS", null, Instant.now()));
     }
 
     /**
      * Log failed action
      */
-    @Transactional
     public void logFailure(User user, String action, String resource, String errorMessage,
                            String ipAddress, String userAgent) {
-        try {
-            AuditLog auditLog = AuditLog.builder()
-                    .user(user)
-                    .action(action)
-                    .resource(resource)
-                    .ipAddress(ipAddress)
-                    .userAgent(userAgent)
-                    .status("FAILURE")
-                    .errorMessage(errorMessage)
-                    .build();
-
-            auditLogRepository.persist(auditLog);
-        } catch (Exception e) {
-            log.error("Failed to create audit log", e);
-        }
+        enqueue(new PendingAudit(user.getId(), action, resource, ipAddress, userAgent,
+                "FAILURE", errorMessage, Instant.now()));
     }
 
     /**
      * Log action without user (e.g., failed login attempts)
      */
-    @Transactional
     public void logAnonymous(String action, String resource, String status,
                              String ipAddress, String userAgent) {
+        enqueue(new PendingAudit(null, action, resource, ipAddress, userAgent,
+                status, null, Instant.now()));
+    }
+
+    private void enqueue(PendingAudit entry) {
+        if (running && queue.offer(entry)) {
+            return;
+        }
+        // Saturated or shutting down: keep the entry, at the cost of a write on this request
+        inlineCounter.increment();
+        write(List.of(entry));
+    }
+
+    private void runFlusher() {
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+        // Stops only once shut down and drained; never interrupted, so a write is not cut short
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAudit first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Audit writer error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingAudit> batch) {
         try {
-            AuditLog auditLog = AuditLog.builder()
-                    .action(action)
-                    .resource(resource)
-                    .ipAddress(ipAddress)
-                    .userAgent(userAgent)
-                    .status(status)
-                    .build();
-
-            auditLogRepository.persist(auditLog);
+            QuarkusTransaction.requiringNew().run(() -> batch.forEach(this::persist));
+            flushedCounter.increment(batch.size());
         } catch (Exception e) {
-            log.error("Failed to create audit log", e);
+            if (batch.size() == 1) {
+                failedCounter.increment();
+                log.error("Failed to create audit log {}", batch.get(0).action(), e);
+                return;
+            }
+            log.error("Batch write of {} audit logs failed, retrying one by one", batch.size(), e);
+            batch.forEach(entry -> write(List.of(entry)));
+        }
+    }
+
+    private void persist(PendingAudit entry) {
+        AuditLog auditLog = AuditLog.builder()
+                .user(entry.userId() != null
+                        ? auditLogRepository.getEntityManager().getReference(User.class, entry.userId())
+                        : null)
+                .action(entry.action())
+                .resource(entry.resource())
+                .ipAddress(entry.ipAddress())
+                .userAgent(entry.userAgent())
+                .status(entry.status())
+                .errorMessage(entry.errorMessage())
+                .createdAt(entry.createdAt())
+                .build();
+        auditLogRepository.persist(auditLog);
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        if (flusher == null) {
+            return;
+        }
+
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Entries that raced with shutdown, or whatever the writer could not finish in time
+        List<PendingAudit> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            write(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
         }
     }
-}
\ No newline at end of file
+
+    record PendingAudit(String userId, String action, String resource, String ipAddress, String userAgent,
+                        String status, String errorMessage, Instant createdAt) {}
+}
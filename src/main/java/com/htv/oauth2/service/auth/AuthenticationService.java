@@ -1,5 +1,6 @@
 package com.htv.oauth2.service.auth;
 
+import com.htv.oauth2.cache.UserExistenceFilter;
 import com.htv.oauth2.domain.User;
 import com.htv.oauth2.dto.auth.LoginRequest;
 import com.htv.oauth2.exception.ApplicationException;
@@ -22,6 +23,9 @@ public class AuthenticationService {
     @Inject
     UserRepository userRepository;
 
+    @Inject
+    UserExistenceFilter userExistenceFilter;
+
     @Inject
     PasswordService passwordService;
 
@@ -39,9 +43,12 @@ public class AuthenticationService {
 
     /**
      * Authenticate user with username and password
-     * Returns authenticated user or throws exception
+     * Returns authenticated user or throws exception.
+     * One user SELECT and at most one UPDATE (failed attempts, or last login with reset and
+     * optional rehash), flushed at commit; audit entries are written asynchronously.
+     * Failures still commit so failed attempts are counted.
      */
-    @Transactional
+    @Transactional(dontRollbackOn = ApplicationException.class)
     public User authenticateUser(LoginRequest request, String ipAddress, String userAgent) {
         log.info("Authenticating user: {} from IP: {}", request.getUsername(), ipAddress);
 
@@ -54,7 +61,7 @@ public class AuthenticationService {
         }
 
         // 2. Find user
-        User user = userRepository.findByUsernameOrEmail(request.getUsername())
+        User user = userExistenceFilter.find(request.getUsername(), userRepository::findByLoginIdentifier)
                 .orElseThrow(() -> {
                     auditService.logAnonymous("LOGIN_FAILED", request.getUsername(),
                             "FAILURE", ipAddress, userAgent);
@@ -67,26 +74,33 @@ public class AuthenticationService {
         // 4. Verify password
         if (!passwordService.verifyPassword(request.getPassword(), user.getPassword())) {
             log.warn("Invalid password for user: {}", request.getUsername());
-            userService.handleFailedLogin(request.getUsername());
+            userService.handleFailedLogin(user);
             auditService.logFailure(user, "LOGIN_FAILED", "invalid_password",
                     "Invalid password", ipAddress, userAgent);
             throw new ApplicationException(ErrorCode.INVALID_CREDENTIALS,"Invalid username or password");
         }
 
-        // 5. Check if password needs rehashing
-        if (passwordService.needsRehash(user.getPassword())) {
-            log.info("Rehashing password for user: {}", user.getId());
-            user.setPassword(passwordService.hashPassword(request.getPassword()));
-            userRepository.persist(user);
-        }
-
-        // 6. Handle MFA if enabled
+        // 5. Handle MFA if enabled (before touching the user, so its queries do not flush a separate UPDATE)
         if (user.getMfaEnabled()) {
             handleMfaChallenge(user, request, ipAddress, userAgent);
         }
 
+        // 6. Check if password needs rehashing (flushed with the login update)
+        if (passwordService.needsRehash(user.getPassword())) {
+            try {
+                user.setPassword(passwordService.hashPassword(request.getPassword()));
+                log.info("Rehashed password for user: {}", user.getId());
+            } catch (ApplicationException e) {
+                if (e.getErrorCode() != ErrorCode.SERVICE_UNAVAILABLE) {
+                    throw e;
+                }
+                // Hashing pool saturated: the password already verified, so log in and rehash next time
+                log.info("Skipping password rehash for user {}: {}", user.getId(), e.getMessage());
+            }
+        }
+
         // 7. Successful Login: Reset rate limit and update stats
-        userService.handleSuccessfulLogin(user.getId());
+        userService.handleSuccessfulLogin(user);
         auditService.logSuccess(user, "LOGIN_SUCCESS", null, ipAddress, userAgent);
 
         log.info("User authenticated successfully: {}", user.getId());
@@ -97,7 +111,7 @@ public class AuthenticationService {
      * Helper to validate status
      */
     private void validateUserStatus(User user, String ipAddress, String userAgent) {
-        if (user.isAccountLocked()) {
+        if (userService.isAccountLocked(user)) {
             log.warn("Login attempt on locked account: {}", user.getUsername());
             auditService.logFailure(user, "LOGIN_FAILED", "account_locked",
                     "Account is locked", ipAddress, userAgent);
@@ -147,10 +161,10 @@ public class AuthenticationService {
 
     @Transactional
     public User validateCredentials(String username, String password) {
-        User user = userRepository.findByUsernameOrEmail(username)
+        User user = userExistenceFilter.find(username, userRepository::findByLoginIdentifier)
                 .orElseThrow(() -> new ApplicationException(ErrorCode.INVALID_CREDENTIALS, "Invalid credentials"));
 
-        if (!user.getEnabled() || user.isAccountLocked()) {
+        if (!user.getEnabled() || userService.isAccountLocked(user)) {
             throw new ApplicationException(ErrorCode.ACCOUNT_LOCKED, "Account is unavailable");
         }
 
@@ -180,7 +194,7 @@ public class AuthenticationService {
         User user = userRepository.findByIdOptional(userId)
                 .orElseThrow(() -> new ApplicationException(ErrorCode.USER_NOT_FOUND, userId));
 
-        userService.handleSuccessfulLogin(user.getId());
+        userService.handleSuccessfulLogin(user);
         auditService.logSuccess(user, "MFA_SUCCESS", null, ipAddress, userAgent);
 
         return user;
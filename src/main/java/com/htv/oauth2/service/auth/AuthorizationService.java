@@ -6,7 +6,12 @@ import com.htv.oauth2.dto.response.AuthorizationResponse;
 import com.htv.oauth2.exception.ApplicationException;
 import com.htv.oauth2.exception.ErrorCode;
 import com.htv.oauth2.repository.*;
+import com.htv.oauth2.service.cleanup.CleanupEngine;
+import com.htv.oauth2.service.cleanup.CleanupTask;
 import com.htv.oauth2.service.client.ClientService;
+import com.htv.oauth2.service.lease.Lease;
+import com.htv.oauth2.service.scope.ScopeRegistry;
+import com.htv.oauth2.service.scope.ScopeSet;
 import com.htv.oauth2.util.CryptoUtil;
 import com.htv.oauth2.util.DateTimeUtil;
 import com.htv.oauth2.util.ValidationUtil;
@@ -16,6 +21,8 @@ import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Instant;
+import java.util.Optional;
 import java.util.Set;
 
 @Slf4j
@@ -34,6 +41,12 @@ public class AuthorizationService {
     @Inject
     ClientService clientService;
 
+    @Inject
+    CleanupEngine cleanupEngine;
+
+    @Inject
+    ScopeRegistry scopeRegistry;
+
     @ConfigProperty(name = "oauth2.authorization-code.validity", defaultValue = "300")
     Integer authCodeValidity; // 5 minutes
 
@@ -178,8 +191,14 @@ public class AuthorizationService {
             return false;
         }
 
+        // A scope the registry has never seen cannot have been approved
+        Optional<ScopeSet> requested = scopeRegistry.lookup(requestedScopes);
+        if (requested.isEmpty()) {
+            return true;
+        }
+
         return consentRepository.findByUserAndClient(user.getId(), client.getClientId())
-                .map(consent -> !consent.getApprovedScopes().containsAll(requestedScopes))
+                .map(consent -> !consent.getApprovedScopes().containsAll(requested.get()))
                 .orElse(true);
     }
 
@@ -216,12 +235,12 @@ public class AuthorizationService {
     }
 
     /**
-     * Clean up expired authorization codes
+     * Clean up expired authorization codes in throttled chunks
      */
-    @Transactional
-    public void cleanupExpiredAuthorizationCodes() {
+    public void cleanupExpiredAuthorizationCodes(Lease lease) {
         log.info("Cleaning up expired authorization codes");
-        long deleted = authCodeRepository.deleteExpired();
+        long deleted = cleanupEngine.run(
+                new CleanupTask("authcode-cleanup", "authorization_codes", "expires_at", Instant.now()), lease);
         log.info("Deleted {} expired authorization codes", deleted);
     }
 }
\ No newline at end of file
@@ -2,15 +2,24 @@ package com.htv.oauth2.service.cache;
 
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.keys.KeyCommands;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands.RedisSubscriber;
+import io.quarkus.redis.datasource.sortedset.ScoreRange;
+import io.quarkus.redis.datasource.sortedset.SortedSetCommands;
 import io.quarkus.redis.datasource.value.ValueCommands;
+import io.vertx.mutiny.redis.client.Response;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 @Slf4j
@@ -19,6 +28,8 @@ public class CacheService {
 
     private final ValueCommands<String, String> valueCommands;
     private final KeyCommands<String> keyCommands;
+    private final PubSubCommands<String> pubSubCommands;
+    private final SortedSetCommands<String, String> sortedSetCommands;
     private final RedisDataSource redisDataSource;
 
     @Inject
@@ -26,6 +37,8 @@ public class CacheService {
         this.redisDataSource = redisDataSource;
         this.valueCommands = redisDataSource.value(String.class, String.class);
         this.keyCommands = redisDataSource.key(String.class);
+        this.pubSubCommands = redisDataSource.pubsub(String.class);
+        this.sortedSetCommands = redisDataSource.sortedSet(String.class, String.class);
     }
 
     @PostConstruct
@@ -49,6 +62,16 @@ public class CacheService {
         }, "put");
     }
 
+    /**
+     * SETEX that reports whether Redis took the write, for data that lives nowhere else
+     */
+    public boolean tryPut(String key, String value, long ttlSeconds) {
+        return execute(() -> {
+            valueCommands.setex(key, ttlSeconds, value);
+            return true;
+        }, "tryPut").orElse(false);
+    }
+
     public void put(String key, String value) {
         execute(() -> {
             valueCommands.set(key, value);
@@ -73,6 +96,20 @@ public class CacheService {
         }, "delete");
     }
 
+    /**
+     * Delete several keys in one round trip
+     */
+    public void deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        execute(() -> keyCommands.del(keys.toArray(String[]::new)), "deleteAll");
+    }
+
+    public Optional<String> getAndDelete(String key) {
+        return execute(() -> valueCommands.getdel(key), "getAndDelete");
+    }
+
     public void deletePattern(String pattern) {
         execute(() -> {
             List<String> keys = keyCommands.keys(pattern);
@@ -104,6 +141,17 @@ public class CacheService {
         }, "increment").orElse(0L);
     }
 
+    private static final String INCREMENT_WITH_EXPIRY =
+            "local v = redis.call('INCR', KEYS[1]) if v == 1 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end return v";
+
+    /**
+     * Atomic INCR that sets the TTL on the first increment, in one round trip; empty if Redis is unreachable
+     */
+    public Optional<Long> incrementWithExpiry(String key, long ttlSeconds) {
+        return execute(() -> redisDataSource.execute("EVAL", INCREMENT_WITH_EXPIRY, "1", key,
+                String.valueOf(ttlSeconds)).toLong(), "incrementWithExpiry");
+    }
+
     public long decrement(String key) {
         return execute(() -> valueCommands.decr(key), "decrement")
                 .orElse(0L);
@@ -138,13 +186,15 @@ public class CacheService {
 
     // ============= Advanced Operations =============
 
+    /**
+     * Atomic SET NX EX: value is only written, with its TTL, when the key does not exist
+     */
     public boolean setIfAbsent(String key, String value, long ttlSeconds) {
         return execute(() -> {
-            boolean result = valueCommands.setnx(key, value);
-            if (result && ttlSeconds > 0) {
-                keyCommands.expire(key, Duration.ofSeconds(ttlSeconds));
-            }
-            return result;
+            Response response = ttlSeconds > 0
+                    ? redisDataSource.execute("SET", key, value, "NX", "EX", String.valueOf(ttlSeconds))
+                    : redisDataSource.execute("SET", key, value, "NX");
+            return response != null && "OK".equals(response.toString());
         }, "setIfAbsent").orElse(false);
     }
 
@@ -158,6 +208,88 @@ public class CacheService {
                 .orElse(List.of());
     }
 
+    /**
+     * Get several keys in one round trip.
+     * Returns empty when Redis is unreachable so callers can tell an outage from a miss.
+     */
+    public Optional<Map<String, String>> getAll(String... keys) {
+        return execute(() -> valueCommands.mget(keys), "getAll");
+    }
+
+    // ============= Lease Operations =============
+
+    private static final String EXPIRE_IF_EQUALS =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) else return 0 end";
+    private static final String DELETE_IF_EQUALS =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end";
+
+    /**
+     * Extend the TTL only while the key still holds the expected value
+     */
+    public boolean expireIfEquals(String key, String expected, long ttlMillis) {
+        return execute(() -> redisDataSource.execute("EVAL", EXPIRE_IF_EQUALS, "1", key, expected,
+                String.valueOf(ttlMillis)).toLong() == 1, "expireIfEquals").orElse(false);
+    }
+
+    /**
+     * Delete the key only while it still holds the expected value
+     */
+    public boolean deleteIfEquals(String key, String expected) {
+        return execute(() -> redisDataSource.execute("EVAL", DELETE_IF_EQUALS, "1", key, expected)
+                .toLong() == 1, "deleteIfEquals").orElse(false);
+    }
+
+    /**
+     * INCR without expiry, for monotonic sequences such as fencing tokens; empty if Redis is unreachable
+     */
+    public Optional<Long> incrementAndGet(String key) {
+        return execute(() -> valueCommands.incr(key), "incrementAndGet");
+    }
+
+    // ============= Sorted Set Operations =============
+
+    public boolean addScored(String key, String member, double score) {
+        return execute(() -> {
+            sortedSetCommands.zadd(key, score, member);
+            return true;
+        }, "addScored").orElse(false);
+    }
+
+    /**
+     * Members with min <= score <= max; empty if Redis is unreachable
+     */
+    public Optional<Map<String, Double>> rangeByScore(String key, double min, double max) {
+        return execute(() -> {
+            Map<String, Double> members = new LinkedHashMap<>();
+            sortedSetCommands.zrangebyscoreWithScores(key, ScoreRange.from(min, max))
+                    .forEach(scored -> members.put(scored.value(), scored.score()));
+            return members;
+        }, "rangeByScore");
+    }
+
+    public long removeByScore(String key, double min, double max) {
+        return execute(() -> sortedSetCommands.zremrangebyscore(key, ScoreRange.from(min, max)), "removeByScore")
+                .orElse(0L);
+    }
+
+    // ============= Pub/Sub Operations =============
+
+    public boolean publish(String channel, String message) {
+        return execute(() -> {
+            pubSubCommands.publish(channel, message);
+            return true;
+        }, "publish").orElse(false);
+    }
+
+    /**
+     * Subscribe to a channel.
+     * onEnd/onError fire when the subscription is lost, so callers can resubscribe and resync.
+     */
+    public Optional<RedisSubscriber> subscribe(String channel, Consumer<String> onMessage,
+                                               Runnable onEnd, Consumer<Throwable> onError) {
+        return execute(() -> pubSubCommands.subscribe(channel, onMessage, onEnd, onError), "subscribe");
+    }
+
     // ============= Utility Methods =============
 
     /**
@@ -0,0 +1,220 @@
+package com.htv.oauth2.service.cleanup;
+
+import com.htv.oauth2.repository.JobFenceRepository;
+import com.htv.oauth2.service.cache.CacheService;
+import com.htv.oauth2.service.lease.Lease;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ============================================
+// Cleanup Engine
+// ============================================
+
+/**
+ * Deletes old rows in small keyset-ordered chunks, one short transaction per chunk,
+ * pausing between chunks to cap IO. The position after each chunk is checkpointed
+ * in Redis so a run interrupted by a restart resumes where it stopped.
+ * Rows go straight through native SQL, so nothing accumulates in the persistence context.
+ * Under a lease every chunk advances the job's fence in its own transaction, so a holder
+ * that has been superseded cannot delete anything even if it missed losing the lease.
+ */
+@Slf4j
+@ApplicationScoped
+public class CleanupEngine {
+
+    private static final String CHECKPOINT_PREFIX = "cleanup_checkpoint:";
+    private static final long CHECKPOINT_TTL = 86400 * 7;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    JobFenceRepository jobFenceRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "oauth2.cleanup.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "oauth2.cleanup.pause-ms", defaultValue = "100")
+    long pauseMs;
+
+    // Last observed values per task, exported as gauges
+    private final Map<String, AtomicLong> rowsPerSecond = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lagSeconds = new ConcurrentHashMap<>();
+
+    /**
+     * Purge everything the task selects; returns the number of rows deleted in this run
+     */
+    public long run(CleanupTask task) {
+        return run(task, null);
+    }
+
+    /**
+     * Purge under a lease: stops before the next chunk once the lease is lost or fenced off
+     */
+    public long run(CleanupTask task, Lease lease) {
+        Instant started = Instant.now();
+        Optional<Position> position = loadCheckpoint(task);
+        position.ifPresent(p -> log.info("Cleanup {} resuming after {} / {}", task.name(), p.key(), p.id()));
+
+        long deleted = 0;
+        try {
+            while (true) {
+                if (lease != null && !lease.isValid()) {
+                    log.warn("Cleanup {} stopped, lease {} lost (fence {})", task.name(), lease.name(), lease.fencingToken());
+                    return deleted;
+                }
+
+                Optional<Position> from = position;
+                ChunkResult chunk = QuarkusTransaction.requiringNew().call(() -> deleteChunk(task, from.orElse(null), lease));
+                if (chunk.fenced()) {
+                    log.warn("Cleanup {} stopped, fenced off by a newer holder of lease {} (fence {})",
+                            task.name(), lease.name(), lease.fencingToken());
+                    return deleted;
+                }
+                if (chunk.deleted() == 0) {
+                    break;
+                }
+
+                deleted += chunk.deleted();
+                position = Optional.of(chunk.last());
+                saveCheckpoint(task, chunk.last());
+                meterRegistry.counter("oauth2.cleanup.rows", "task", task.name()).increment(chunk.deleted());
+
+                if (chunk.deleted() < chunkSize) {
+                    break;
+                }
+                pause();
+            }
+            cacheService.delete(CHECKPOINT_PREFIX + task.name());
+        } finally {
+            recordMetrics(task, deleted, Duration.between(started, Instant.now()));
+        }
+
+        log.info("Cleanup {} deleted {} rows from {} in {}ms",
+                task.name(), deleted, task.table(), Duration.between(started, Instant.now()).toMillis());
+        return deleted;
+    }
+
+    private ChunkResult deleteChunk(CleanupTask task, Position after, Lease lease) {
+        if (lease != null && !jobFenceRepository.advance(lease)) {
+            return new ChunkResult(0, after, true);
+        }
+
+        String key = task.keyColumn();
+        String sql = "WITH chunk AS (" +
+                " SELECT t.id, t." + key + " AS k FROM " + task.table() + " t" +
+                " WHERE t." + key + " < :cutoff" +
+                (after != null ? " AND (t." + key + ", t.id) > (:afterKey, :afterId)" : "") +
+                (task.condition() != null ? " AND (" + task.condition() + ")" : "") +
+                " ORDER BY t." + key + ", t.id LIMIT :limit" +
+                "), deleted AS (" +
+                " DELETE FROM " + task.table() + " d USING chunk c WHERE d.id = c.id RETURNING c.k, c.id" +
+                ")" +
+                " SELECT (SELECT count(*) FROM deleted) AS n, k, id FROM deleted ORDER BY k DESC, id DESC LIMIT 1";
+
+        NativeQuery<?> query = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("n", StandardBasicTypes.LONG)
+                .addScalar("k", StandardBasicTypes.INSTANT)
+                .addScalar("id", StandardBasicTypes.STRING)
+                .setParameter("cutoff", task.cutoff())
+                .setParameter("limit", chunkSize);
+        if (after != null) {
+            query.setParameter("afterKey", after.key());
+            query.setParameter("afterId", after.id());
+        }
+
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return new ChunkResult(0, after, false);
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return new ChunkResult((Long) row[0], new Position((Instant) row[1], (String) row[2]), false);
+    }
+
+    private Optional<Position> loadCheckpoint(CleanupTask task) {
+        return cacheService.get(CHECKPOINT_PREFIX + task.name())
+                .flatMap(value -> {
+                    String[] parts = value.split("\\|", 2);
+                    try {
+                        return Optional.of(new Position(Instant.ofEpochMilli(Long.parseLong(parts[0])), parts[1]));
+                    } catch (RuntimeException e) {
+                        log.warn("Ignoring malformed checkpoint for {}: {}", task.name(), value);
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    private void saveCheckpoint(CleanupTask task, Position position) {
+        cacheService.put(CHECKPOINT_PREFIX + task.name(),
+                position.key().toEpochMilli() + "|" + position.id(), CHECKPOINT_TTL);
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cleanup interrupted", e);
+        }
+    }
+
+    private void recordMetrics(CleanupTask task, long deleted, Duration elapsed) {
+        long millis = Math.max(1, elapsed.toMillis());
+        gauge("oauth2.cleanup.rows_per_second", rowsPerSecond, task).set(deleted * 1000 / millis);
+
+        // Lag: how far the oldest remaining eligible row is behind the cutoff
+        try {
+            Instant oldest = QuarkusTransaction.requiringNew().call(() -> (Instant) entityManager
+                    .createNativeQuery("SELECT min(t." + task.keyColumn() + ") AS k FROM " + task.table() + " t" +
+                            (task.condition() != null ? " WHERE (" + task.condition() + ")" : ""))
+                    .unwrap(NativeQuery.class)
+                    .addScalar("k", StandardBasicTypes.INSTANT)
+                    .getSingleResult());
+            long lag = oldest != null ? Math.max(0, Duration.between(oldest, task.cutoff()).toSeconds()) : 0;
+            gauge("oauth2.cleanup.lag_seconds", lagSeconds, task).set(lag);
+        } catch (Exception e) {
+            log.warn("Failed to measure cleanup lag for {}: {}", task.name(), e.getMessage());
+        }
+    }
+
+    private AtomicLong gauge(String name, Map<String, AtomicLong> values, CleanupTask task) {
+        return values.computeIfAbsent(task.name(), taskName -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder(name, value, AtomicLong::get)
+                    .tags(Tags.of("task", taskName))
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private record Position(Instant key, String id) {}
+
+    private record ChunkResult(long deleted, Position last, boolean fenced) {}
+}
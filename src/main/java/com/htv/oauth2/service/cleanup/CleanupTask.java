@@ -0,0 +1,20 @@
+package com.htv.oauth2.service.cleanup;
+
+import java.time.Instant;
+
+/**
+ * One purge job for {@link CleanupEngine}: delete rows of table whose keyColumn is before cutoff.
+ * Rows are visited in (keyColumn, id) order, so keyColumn should be indexed.
+ *
+ * @param name      stable job name, used for the checkpoint key and metric tags
+ * @param table     table to purge
+ * @param keyColumn TIMESTAMP column compared against cutoff
+ * @param cutoff    rows with keyColumn before this are deleted
+ * @param condition optional extra SQL predicate on alias t, e.g. to keep referenced rows
+ */
+public record CleanupTask(String name, String table, String keyColumn, Instant cutoff, String condition) {
+
+    public CleanupTask(String name, String table, String keyColumn, Instant cutoff) {
+        this(name, table, keyColumn, cutoff, null);
+    }
+}
@@ -1,5 +1,7 @@
 package com.htv.oauth2.service.client;
 
+import com.htv.oauth2.cache.ClientCache;
+import com.htv.oauth2.cache.ClientCache.ClientChanged;
 import com.htv.oauth2.domain.Client;
 import com.htv.oauth2.dto.request.client.ClientRegistrationRequest;
 import com.htv.oauth2.dto.request.client.ClientUpdateRequest;
@@ -8,13 +10,20 @@ import com.htv.oauth2.exception.ApplicationException;
 import com.htv.oauth2.exception.ErrorCode;
 import com.htv.oauth2.mapper.ClientMapper;
 import com.htv.oauth2.repository.ClientRepository;
+import com.htv.oauth2.service.scope.ScopeRegistry;
+import com.htv.oauth2.service.security.ClientSecretHasher;
 import com.htv.oauth2.util.CryptoUtil;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @ApplicationScoped
@@ -26,6 +35,22 @@ public class ClientService {
     @Inject
     ClientMapper clientMapper;
 
+    @Inject
+    ClientCache clientCache;
+
+    @Inject
+    ScopeRegistry scopeRegistry;
+
+    @Inject
+    ClientSecretHasher clientSecretHasher;
+
+    @Inject
+    Event<ClientChanged> clientChanged;
+
+    void onStart(@Observes StartupEvent ev) {
+        QuarkusTransaction.requiringNew().call(this::hashLegacySecrets);
+    }
+
     /**
      * Register new OAuth2 client
      */
@@ -39,7 +64,7 @@ public class ClientService {
         // Generate client credentials
         client.setClientId(CryptoUtil.generateClientId());
         String clientSecret = CryptoUtil.generateClientSecret();
-        client.setClientSecret(clientSecret); // In production, hash this
+        client.setClientSecret(clientSecretHasher.hash(clientSecret));
 
         clientRepository.persist(client);
 
@@ -72,6 +97,7 @@ public class ClientService {
 
         clientMapper.updateClientFromRequest(request, client);
         clientRepository.persist(client);
+        clientChanged.fire(new ClientChanged(clientId));
 
         log.info("Client updated successfully: {}", clientId);
         return clientMapper.toResponse(client);
@@ -88,8 +114,9 @@ public class ClientService {
                 .orElseThrow(() -> new ApplicationException(ErrorCode.CLIENT_NOT_FOUND, clientId));
 
         String newSecret = CryptoUtil.generateClientSecret();
-        client.setClientSecret(newSecret); // In production, hash this
+        client.setClientSecret(clientSecretHasher.hash(newSecret));
         clientRepository.persist(client);
+        clientChanged.fire(new ClientChanged(clientId));
 
         log.info("Client secret reset: {}", clientId);
 
@@ -107,6 +134,7 @@ public class ClientService {
                 .orElseThrow(() -> new ApplicationException(ErrorCode.CLIENT_NOT_FOUND, clientId));
         client.setEnabled(enabled);
         clientRepository.persist(client);
+        clientChanged.fire(new ClientChanged(clientId));
         log.info("Client {} set to enabled={}", clientId, enabled);
     }
 
@@ -118,6 +146,7 @@ public class ClientService {
         Client client = clientRepository.findByClientId(clientId)
                 .orElseThrow(() -> new ApplicationException(ErrorCode.CLIENT_NOT_FOUND, clientId));
         clientRepository.delete(client);
+        clientChanged.fire(new ClientChanged(clientId));
         log.info("Client deleted: {}", clientId);
     }
 
@@ -129,25 +158,80 @@ public class ClientService {
         return clientMapper.toResponseList(clients);
     }
 
+    // ============= Snapshots =============
+
+    /**
+     * Compiled client from the in-process cache; no database access on a hit
+     */
+    public Optional<ClientSnapshot> findSnapshot(String clientId) {
+        if (clientId == null) {
+            return Optional.empty();
+        }
+        return clientCache.getClient(clientId, id -> clientRepository.findByClientId(id).map(this::compile));
+    }
+
+    /**
+     * Compile an entity into an immutable snapshot
+     */
+    public ClientSnapshot compile(Client client) {
+        return new ClientSnapshot(client, scopeRegistry.of(client.getScopes()));
+    }
+
     /**
      * Validate client credentials
      */
-    public Client validateClientCredentials(String clientId, String clientSecret) {
-        Client client = clientRepository.findByClientId(clientId)
+    public ClientSnapshot validateClientCredentials(String clientId, String clientSecret) {
+        ClientSnapshot client = findSnapshot(clientId)
                 .orElseThrow(() -> new ApplicationException(ErrorCode.INVALID_CLIENT, "Invalid client credentials"));
 
-        if (!client.getEnabled()) {
+        if (!client.isEnabled()) {
             throw new ApplicationException(ErrorCode.INVALID_CLIENT, "Client is disabled");
         }
 
-        // In production, use password hashing for client secrets
-        if (!client.getClientSecret().equals(clientSecret)) {
+        if (!verifySecret(client, clientSecret)) {
             throw new ApplicationException(ErrorCode.INVALID_CLIENT, "Invalid client credentials");
         }
 
         return client;
     }
 
+    /**
+     * KDF check, skipped when the same secret was recently verified against the same stored hash
+     */
+    private boolean verifySecret(ClientSnapshot client, String clientSecret) {
+        String storedHash = client.getSecretHash();
+        if (clientSecret == null || storedHash == null) {
+            return false;
+        }
+        if (clientCache.isSecretVerified(client.getClientId(), clientSecret, storedHash)) {
+            return true;
+        }
+        if (!clientSecretHasher.verify(clientSecret, storedHash)) {
+            return false;
+        }
+        clientCache.markSecretVerified(client.getClientId(), clientSecret, storedHash);
+        return true;
+    }
+
+    /**
+     * Hash secrets stored in plaintext before hashing was introduced
+     */
+    @Transactional
+    public int hashLegacySecrets() {
+        int hashed = 0;
+        for (Client client : clientRepository.listAll()) {
+            if (!clientSecretHasher.isHashed(client.getClientSecret())) {
+                client.setClientSecret(clientSecretHasher.hash(client.getClientSecret()));
+                clientChanged.fire(new ClientChanged(client.getClientId()));
+                hashed++;
+            }
+        }
+        if (hashed > 0) {
+            log.info("Hashed {} plaintext client secrets", hashed);
+        }
+        return hashed;
+    }
+
     /**
      * Validate redirect URI
      */
@@ -167,4 +251,13 @@ public class ClientService {
             throw new ApplicationException(ErrorCode.UNSUPPORTED_GRANT_TYPE, grantType);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Validate grant type against a compiled client
+     */
+    public void validateGrantType(ClientSnapshot client, String grantType) {
+        if (!client.supportsGrantType(grantType)) {
+            throw new ApplicationException(ErrorCode.UNAUTHORIZED_CLIENT, grantType);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.htv.oauth2.service.client;
+
+import com.htv.oauth2.domain.AccessTokenFormat;
+import com.htv.oauth2.domain.Client;
+import com.htv.oauth2.domain.GrantType;
+import com.htv.oauth2.service.scope.ScopeSet;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable, pre-compiled view of a client for the token/introspection/revocation
+ * hot path. Built once per cache load so requests do no collection copying,
+ * string grant-type matching; secrets are checked through the verified-secret cache.
+ */
+public final class ClientSnapshot {
+
+    private final String id;
+    private final String clientId;
+    private final String clientName;
+    private final Set<GrantType> grantTypes;
+    private final ScopeSet scopes;
+    private final Set<String> redirectUris;
+    private final String secretHash;
+    private final Integer accessTokenValidity;
+    private final Integer refreshTokenValidity;
+    private final boolean autoApprove;
+    private final AccessTokenFormat accessTokenFormat;
+    private final boolean clientTokenReuse;
+    private final boolean enabled;
+
+    ClientSnapshot(Client client, ScopeSet scopes) {
+        EnumSet<GrantType> compiledGrantTypes = EnumSet.noneOf(GrantType.class);
+        if (client.getGrantTypes() != null) {
+            client.getGrantTypes().forEach(value -> GrantType.fromValue(value).ifPresent(compiledGrantTypes::add));
+        }
+
+        this.id = client.getId();
+        this.clientId = client.getClientId();
+        this.clientName = client.getClientName();
+        this.grantTypes = Collections.unmodifiableSet(compiledGrantTypes);
+        this.scopes = scopes;
+        this.redirectUris = client.getRedirectUris() != null ? Set.copyOf(client.getRedirectUris()) : Set.of();
+        this.secretHash = client.getClientSecret();
+        this.accessTokenValidity = client.getAccessTokenValidity();
+        this.refreshTokenValidity = client.getRefreshTokenValidity();
+        this.autoApprove = Boolean.TRUE.equals(client.getAutoApprove());
+        this.accessTokenFormat = client.getAccessTokenFormat() != null ? client.getAccessTokenFormat() : AccessTokenFormat.JWT;
+        this.clientTokenReuse = !Boolean.FALSE.equals(client.getClientTokenReuse());
+        this.enabled = Boolean.TRUE.equals(client.getEnabled());
+    }
+
+    public boolean isValidRedirectUri(String redirectUri) {
+        return redirectUri != null && redirectUris.contains(redirectUri);
+    }
+
+    public boolean supportsGrantType(String grantType) {
+        return GrantType.fromValue(grantType).map(grantTypes::contains).orElse(false);
+    }
+
+    public boolean supportsGrantType(GrantType grantType) {
+        return grantTypes.contains(grantType);
+    }
+
+    /**
+     * Database id, for entity references
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public Set<GrantType> getGrantTypes() {
+        return grantTypes;
+    }
+
+    public ScopeSet getScopes() {
+        return scopes;
+    }
+
+    public Set<String> getRedirectUris() {
+        return redirectUris;
+    }
+
+    public Integer getAccessTokenValidity() {
+        return accessTokenValidity;
+    }
+
+    public Integer getRefreshTokenValidity() {
+        return refreshTokenValidity;
+    }
+
+    public boolean isAutoApprove() {
+        return autoApprove;
+    }
+
+    public AccessTokenFormat getAccessTokenFormat() {
+        return accessTokenFormat;
+    }
+
+    public boolean isClientTokenReuse() {
+        return clientTokenReuse;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stored secret hash, see ClientSecretHasher
+     */
+    String getSecretHash() {
+        return secretHash;
+    }
+}
@@ -0,0 +1,19 @@
+package com.htv.oauth2.service.lease;
+
+/**
+ * A held cluster-wide lease.
+ * The fencing token grows with every acquisition of the same lease. Guarded writes pass
+ * it to JobFenceRepository.advance in their own transaction, so a holder that has been
+ * superseded (e.g. after a long pause) is rejected by the database, not just by Redis.
+ */
+public interface Lease {
+
+    String name();
+
+    long fencingToken();
+
+    /**
+     * Still renewed by this node and not superseded by a newer holder
+     */
+    boolean isValid();
+}
@@ -0,0 +1,191 @@
+package com.htv.oauth2.service.lease;
+
+import com.htv.oauth2.service.cache.CacheService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// ============================================
+// Lease Service
+// ============================================
+
+/**
+ * Cluster-wide leases on Redis so a scheduled job runs on one replica at a time.
+ * Acquire is SET NX with a short TTL; the holder renews at a third of the TTL, so
+ * a dead pod loses the lease within one TTL. Each acquisition takes the next value
+ * of a per-lease counter as fencing token.
+ */
+@Slf4j
+@ApplicationScoped
+public class LeaseService {
+
+    private static final String LEASE_PREFIX = "lease:";
+    private static final String FENCE_PREFIX = "lease_fence:";
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "oauth2.lease.ttl-ms", defaultValue = "30000")
+    long ttlMillis;
+
+    @ConfigProperty(name = "oauth2.lease.node-id")
+    Optional<String> configuredNodeId;
+
+    private String nodeId;
+    private ScheduledExecutorService renewer;
+    private final Map<String, HeldLease> held = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> holding = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId
+                .or(() -> Optional.ofNullable(System.getenv("HOSTNAME")))
+                .orElseGet(() -> UUID.randomUUID().toString());
+
+        renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, ttlMillis / 3);
+        renewer.scheduleAtFixedRate(this::renewAll, period, period, TimeUnit.MILLISECONDS);
+
+        log.info("Lease service started: node={}, ttl={}ms", nodeId, ttlMillis);
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+        // Hand leases over immediately instead of waiting for the TTL
+        held.values().forEach(this::release);
+    }
+
+    /**
+     * Run the job only if this node wins the lease; returns whether it ran
+     */
+    public boolean runExclusive(String name, Consumer<Lease> job) {
+        Optional<HeldLease> lease = tryAcquire(name);
+        if (lease.isEmpty()) {
+            log.debug("Lease {} held by another node, skipping", name);
+            return false;
+        }
+
+        try {
+            job.accept(lease.get());
+            return true;
+        } finally {
+            release(lease.get());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private Optional<HeldLease> tryAcquire(String name) {
+        String owner = nodeId + ":" + UUID.randomUUID();
+        long ttlSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(ttlMillis));
+        if (!cacheService.setIfAbsent(LEASE_PREFIX + name, owner, ttlSeconds)) {
+            return Optional.empty();
+        }
+
+        Optional<Long> fence = cacheService.incrementAndGet(FENCE_PREFIX + name);
+        if (fence.isEmpty()) {
+            cacheService.deleteIfEquals(LEASE_PREFIX + name, owner);
+            return Optional.empty();
+        }
+
+        HeldLease lease = new HeldLease(name, owner, fence.get());
+        held.put(name, lease);
+        holdingGauge(name).set(1);
+        meterRegistry.counter("oauth2.lease.acquired", "lease", name, "node", nodeId).increment();
+        log.info("Acquired lease {} (fence {})", name, lease.fencingToken());
+        return Optional.of(lease);
+    }
+
+    private void release(HeldLease lease) {
+        lease.lost = true;
+        held.remove(lease.name(), lease);
+        holdingGauge(lease.name()).set(0);
+        cacheService.deleteIfEquals(LEASE_PREFIX + lease.name(), lease.owner);
+    }
+
+    private void renewAll() {
+        for (HeldLease lease : held.values()) {
+            if (!cacheService.expireIfEquals(LEASE_PREFIX + lease.name(), lease.owner, ttlMillis)) {
+                lease.lost = true;
+                held.remove(lease.name(), lease);
+                holdingGauge(lease.name()).set(0);
+                log.warn("Lost lease {} (fence {})", lease.name(), lease.fencingToken());
+            }
+        }
+    }
+
+    private boolean isCurrentFence(HeldLease lease) {
+        return cacheService.get(FENCE_PREFIX + lease.name())
+                .map(value -> value.equals(String.valueOf(lease.fencingToken())))
+                .orElse(false);
+    }
+
+    // 1 on the node holding the lease, 0 elsewhere
+    private AtomicInteger holdingGauge(String name) {
+        return holding.computeIfAbsent(name, leaseName -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("oauth2.lease.held", value, AtomicInteger::get)
+                    .description("Whether this node holds the lease")
+                    .tags(Tags.of("lease", leaseName, "node", nodeId))
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private final class HeldLease implements Lease {
+
+        private final String name;
+        private final String owner;
+        private final long fencingToken;
+        private volatile boolean lost;
+
+        private HeldLease(String name, String owner, long fencingToken) {
+            this.name = name;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public long fencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        public boolean isValid() {
+            return !lost && isCurrentFence(this);
+        }
+    }
+}
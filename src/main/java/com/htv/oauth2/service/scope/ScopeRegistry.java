@@ -0,0 +1,179 @@
+package com.htv.oauth2.service.scope;
+
+import com.htv.oauth2.repository.ScopeRepository;
+import com.htv.oauth2.repository.ScopeRepository.ScopeRow;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ============================================
+// Scope Registry
+// ============================================
+
+/**
+ * Maps scope names to small integer ids so scopes can be stored as smallint[]
+ * and compared as bitsets. Ids are append-only and shared through the scopes
+ * table; unknown names are registered on first use and ids seen from other
+ * nodes are picked up by reloading.
+ */
+@Slf4j
+@ApplicationScoped
+public class ScopeRegistry {
+
+    private static final int MAX_ID = Short.MAX_VALUE;
+
+    @Inject
+    ScopeRepository scopeRepository;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+    private volatile boolean loaded;
+
+    /**
+     * Scope set for the given names, registering names seen for the first time
+     */
+    public ScopeSet of(Collection<String> scopes) {
+        if (scopes instanceof ScopeSet scopeSet) {
+            return scopeSet;
+        }
+        long[] words = new long[0];
+        if (scopes != null) {
+            for (String scope : scopes) {
+                int id = idOf(scope);
+                int word = id >>> 6;
+                if (word >= words.length) {
+                    words = Arrays.copyOf(words, word + 1);
+                }
+                words[word] |= 1L << id;
+            }
+        }
+        return new ScopeSet(this, words);
+    }
+
+    /**
+     * Scope set for already registered names; empty if any name is unknown.
+     * For request input, which must not grow the registry.
+     */
+    public Optional<ScopeSet> lookup(Collection<String> scopes) {
+        if (scopes instanceof ScopeSet scopeSet) {
+            return Optional.of(scopeSet);
+        }
+        long[] words = new long[0];
+        if (scopes != null) {
+            for (String scope : scopes) {
+                int id = findId(scope);
+                if (id < 0) {
+                    return Optional.empty();
+                }
+                int word = id >>> 6;
+                if (word >= words.length) {
+                    words = Arrays.copyOf(words, word + 1);
+                }
+                words[word] |= 1L << id;
+            }
+        }
+        return Optional.of(new ScopeSet(this, words));
+    }
+
+    /**
+     * Scope set for ids read from a smallint[] column
+     */
+    public ScopeSet fromIds(short[] scopeIds) {
+        long[] words = new long[0];
+        if (scopeIds != null) {
+            for (short id : scopeIds) {
+                int word = id >>> 6;
+                if (word >= words.length) {
+                    words = Arrays.copyOf(words, word + 1);
+                }
+                words[word] |= 1L << id;
+            }
+        }
+        return new ScopeSet(this, words);
+    }
+
+    /**
+     * Id of a known scope, or -1; never registers
+     */
+    public int findId(String name) {
+        ensureLoaded();
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    String nameOf(int id) {
+        String[] current = names;
+        if (id < current.length && current[id] != null) {
+            return current[id];
+        }
+        // Registered by another node since we last loaded
+        reload();
+        current = names;
+        if (id < current.length && current[id] != null) {
+            return current[id];
+        }
+        throw new IllegalStateException("Unknown scope id: " + id);
+    }
+
+    private int idOf(String name) {
+        int id = findId(name);
+        if (id >= 0) {
+            return id;
+        }
+        return register(name);
+    }
+
+    private synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Own transaction: may be called while the caller's entity is being flushed
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Integer id = QuarkusTransaction.requiringNew().call(() -> scopeRepository.register(name)).orElse(null);
+            if (id != null) {
+                if (id > MAX_ID) {
+                    throw new IllegalStateException("Scope registry full");
+                }
+                put(id, name);
+                log.info("Registered scope {} as id {}", name, id);
+                return id;
+            }
+        }
+        throw new IllegalStateException("Failed to register scope: " + name);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    private synchronized void reload() {
+        List<ScopeRow> rows = QuarkusTransaction.requiringNew().call(scopeRepository::findAll);
+        rows.forEach(row -> put(row.id(), row.name()));
+        loaded = true;
+        log.debug("Scope registry loaded: {} scopes", ids.size());
+    }
+
+    private synchronized void put(int id, String name) {
+        String[] current = names;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        } else {
+            current = current.clone();
+        }
+        current[id] = name;
+        names = current;
+        ids.put(name, id);
+    }
+}
@@ -0,0 +1,149 @@
+package com.htv.oauth2.service.scope;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of scopes stored as a bitset of registry ids.
+ * Subset checks between two ScopeSets are a few word-wise ANDs; names are only
+ * resolved when the set is iterated (serialization, claims).
+ */
+public final class ScopeSet extends AbstractSet<String> {
+
+    private final ScopeRegistry registry;
+    private final long[] words; // no trailing zero words, so equal sets have equal arrays
+
+    ScopeSet(ScopeRegistry registry, long[] words) {
+        this.registry = registry;
+        this.words = trim(words);
+    }
+
+    /**
+     * Whether every scope of other is also in this set
+     */
+    public boolean containsAll(ScopeSet other) {
+        if (other.words.length > words.length) {
+            return false;
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean containsId(int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * Registry ids in ascending order, as stored in the smallint[] columns
+     */
+    public short[] toIds() {
+        short[] ids = new short[size()];
+        int n = 0;
+        for (int id = nextId(0); id >= 0; id = nextId(id + 1)) {
+            ids[n++] = (short) id;
+        }
+        return ids;
+    }
+
+    // ============= Set =============
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c instanceof ScopeSet other) {
+            return containsAll(other);
+        }
+        return super.containsAll(c);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String name)) {
+            return false;
+        }
+        int id = registry.findId(name);
+        return id >= 0 && containsId(id);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = nextId(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                String name = registry.nameOf(next);
+                next = nextId(next + 1);
+                return name;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ScopeSet other) {
+            return Arrays.equals(words, other.words);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // Must match AbstractSet semantics so ScopeSet and HashSet compare consistently
+        return super.hashCode();
+    }
+
+    private int nextId(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    private static long[] trim(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return length == words.length ? words : Arrays.copyOf(words, length);
+    }
+}
@@ -0,0 +1,157 @@
+package com.htv.oauth2.service.security;
+
+import com.htv.oauth2.util.CryptoUtil;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+// ============================================
+// Argon2id Password Hasher
+// ============================================
+
+/**
+ * Argon2id in PHC string format: $argon2id$v=19$m=KiB,t=iterations,p=lanes$salt$hash.
+ * Memory and parallelism are fixed by config; calibration raises the iteration count,
+ * which scales time linearly without growing per-login memory.
+ */
+@Slf4j
+@ApplicationScoped
+public class Argon2idPasswordHasher implements PasswordHasher {
+
+    private static final String PREFIX = "$argon2id$";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int MAX_ITERATIONS = 20;
+    private static final Base64.Encoder B64 = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getDecoder();
+
+    // Defaults follow the OWASP minimum for Argon2id: 19 MiB, 2 iterations, 1 lane
+    @ConfigProperty(name = "oauth2.password-hashing.argon2.memory-kib", defaultValue = "19456")
+    int memoryKib;
+
+    @ConfigProperty(name = "oauth2.password-hashing.argon2.iterations", defaultValue = "2")
+    int minIterations;
+
+    @ConfigProperty(name = "oauth2.password-hashing.argon2.parallelism", defaultValue = "1")
+    int parallelism;
+
+    private volatile int iterations;
+
+    @Override
+    public String algorithm() {
+        return "argon2id";
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = CryptoUtil.randomBytes(SALT_LENGTH);
+        int t = currentIterations();
+        byte[] hash = derive(password, salt, memoryKib, t, parallelism, HASH_LENGTH);
+        return PREFIX + "v=19$m=" + memoryKib + ",t=" + t + ",p=" + parallelism
+                + "$" + B64.encodeToString(salt) + "$" + B64.encodeToString(hash);
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        Parsed parsed = parse(storedHash);
+        if (parsed == null) {
+            return false;
+        }
+        byte[] computed = derive(password, parsed.salt(), parsed.memoryKib(), parsed.iterations(),
+                parsed.parallelism(), parsed.hash().length);
+        return MessageDigest.isEqual(parsed.hash(), computed);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        Parsed parsed = parse(storedHash);
+        return parsed == null
+                || parsed.memoryKib() < memoryKib
+                || parsed.iterations() < currentIterations();
+    }
+
+    @Override
+    public void calibrate(Duration target) {
+        int calibrated = minIterations;
+        byte[] salt = new byte[SALT_LENGTH];
+        while (calibrated < MAX_ITERATIONS) {
+            int next = calibrated + 1;
+            long nanos = PasswordCalibration.measure(
+                    () -> derive("calibration", salt, memoryKib, next, parallelism, HASH_LENGTH));
+            if (nanos > target.toNanos()) {
+                break;
+            }
+            calibrated = next;
+        }
+        iterations = calibrated;
+    }
+
+    @Override
+    public String describeParameters() {
+        return "m=" + memoryKib + "KiB, t=" + currentIterations() + ", p=" + parallelism;
+    }
+
+    private int currentIterations() {
+        return iterations > 0 ? iterations : minIterations;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int memoryKib, int iterations, int parallelism, int length) {
+        Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withMemoryAsKB(memoryKib)
+                .withIterations(iterations)
+                .withParallelism(parallelism)
+                .withSalt(salt)
+                .build();
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(parameters);
+        byte[] out = new byte[length];
+        generator.generateBytes(password.getBytes(StandardCharsets.UTF_8), out);
+        return out;
+    }
+
+    private Parsed parse(String storedHash) {
+        // "", "argon2id", "v=19", "m=..,t=..,p=..", salt, hash
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 6 || !"v=19".equals(parts[2])) {
+            log.warn("Unsupported Argon2 hash format");
+            return null;
+        }
+        try {
+            int m = 0, t = 0, p = 0;
+            for (String param : parts[3].split(",")) {
+                String[] kv = param.split("=", 2);
+                int value = Integer.parseInt(kv[1]);
+                switch (kv[0]) {
+                    case "m" -> m = value;
+                    case "t" -> t = value;
+                    case "p" -> p = value;
+                    default -> { }
+                }
+            }
+            byte[] salt = B64_DECODER.decode(parts[4]);
+            byte[] hash = B64_DECODER.decode(parts[5]);
+            if (m <= 0 || t <= 0 || p <= 0 || salt.length < 8 || hash.length < 16) {
+                return null;
+            }
+            return new Parsed(m, t, p, salt, hash);
+        } catch (RuntimeException e) {
+            log.warn("Malformed Argon2 hash");
+            return null;
+        }
+    }
+
+    private record Parsed(int memoryKib, int iterations, int parallelism, byte[] salt, byte[] hash) {}
+}
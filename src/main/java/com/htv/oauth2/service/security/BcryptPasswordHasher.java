@@ -0,0 +1,83 @@
+package com.htv.oauth2.service.security;
+
+import io.quarkus.elytron.security.common.BcryptUtil;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+// ============================================
+// Bcrypt Password Hasher
+// ============================================
+
+/**
+ * bcrypt ($2a$cost$...). Calibration raises the cost one step (twice the work) at a time.
+ */
+@Slf4j
+@ApplicationScoped
+public class BcryptPasswordHasher implements PasswordHasher {
+
+    private static final int MAX_COST = 16;
+
+    @ConfigProperty(name = "oauth2.password-hashing.bcrypt.cost", defaultValue = "10")
+    int minCost;
+
+    private volatile int cost;
+
+    @Override
+    public String algorithm() {
+        return "bcrypt";
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith("$2");
+    }
+
+    @Override
+    public String hash(String password) {
+        return BcryptUtil.bcryptHash(password, currentCost());
+    }
+
+    @Override
+    public boolean verify(String password, String storedHash) {
+        return BcryptUtil.matches(password, storedHash);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        // Format: $2a$rounds$salt+hash
+        try {
+            String[] parts = storedHash.split("\\$");
+            if (parts.length < 4) return true;
+            return Integer.parseInt(parts[2]) < currentCost();
+        } catch (Exception e) {
+            log.warn("Failed to parse BCrypt hash format", e);
+            return true;
+        }
+    }
+
+    @Override
+    public void calibrate(Duration target) {
+        int calibrated = minCost;
+        while (calibrated < MAX_COST) {
+            int next = calibrated + 1;
+            long nanos = PasswordCalibration.measure(() -> BcryptUtil.bcryptHash("calibration", next));
+            if (nanos > target.toNanos()) {
+                break;
+            }
+            calibrated++;
+        }
+        cost = calibrated;
+    }
+
+    @Override
+    public String describeParameters() {
+        return "cost=" + currentCost();
+    }
+
+    private int currentCost() {
+        return cost > 0 ? cost : minCost;
+    }
+}
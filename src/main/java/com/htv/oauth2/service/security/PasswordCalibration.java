@@ -0,0 +1,26 @@
+package com.htv.oauth2.service.security;
+
+/**
+ * Timing helper for startup cost calibration
+ */
+final class PasswordCalibration {
+
+    private static final int RUNS = 3;
+
+    private PasswordCalibration() {
+    }
+
+    /**
+     * Fastest of a few runs in nanoseconds; the minimum is the least disturbed by
+     * JIT warm-up and other startup work on the machine
+     */
+    static long measure(Runnable hash) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            hash.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,42 @@
+package com.htv.oauth2.service.security;
+
+import java.time.Duration;
+
+/**
+ * One password hashing scheme. Hashes are self-describing (algorithm and cost in the
+ * stored string), so several schemes can be verified side by side while users migrate.
+ */
+public interface PasswordHasher {
+
+    /**
+     * Name used in oauth2.password-hashing.algorithm
+     */
+    String algorithm();
+
+    /**
+     * Whether the stored hash was produced by this scheme
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * Hash with the current (calibrated) parameters
+     */
+    String hash(String password);
+
+    boolean verify(String password, String storedHash);
+
+    /**
+     * Whether a hash of this scheme is weaker than the current parameters
+     */
+    boolean needsRehash(String storedHash);
+
+    /**
+     * Raise the cost until one hash takes about the target on this machine; never below the configured minimum
+     */
+    void calibrate(Duration target);
+
+    /**
+     * Current parameters, for logging
+     */
+    String describeParameters();
+}
@@ -0,0 +1,156 @@
+package com.htv.oauth2.service.security;
+
+import com.htv.oauth2.exception.ApplicationException;
+import com.htv.oauth2.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// ============================================
+// Password Hashing Executor
+// ============================================
+
+/**
+ * Runs password hashing on a dedicated CPU-sized pool with a small bounded queue.
+ * A login burst can then occupy at most threads + queue-capacity request workers;
+ * anything beyond that is rejected at once with 503 and Retry-After instead of
+ * starving token refreshes and introspection of worker threads.
+ */
+@Slf4j
+@ApplicationScoped
+public class PasswordHashingExecutor {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    // 0 = one thread per core, but at most half the request workers
+    @ConfigProperty(name = "oauth2.password-hashing.threads", defaultValue = "0")
+    int threads;
+
+    @ConfigProperty(name = "quarkus.thread-pool.max-threads")
+    Optional<Integer> workerThreads;
+
+    @ConfigProperty(name = "oauth2.password-hashing.queue-capacity", defaultValue = "2")
+    int queueCapacity;
+
+    @ConfigProperty(name = "oauth2.password-hashing.max-wait-ms", defaultValue = "1000")
+    long maxWaitMs;
+
+    @ConfigProperty(name = "oauth2.password-hashing.retry-after-seconds", defaultValue = "1")
+    long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, Timer> durationTimers = new ConcurrentHashMap<>();
+    private Timer queueWaitTimer;
+    private Counter rejectedCounter;
+    private Counter timedOutCounter;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : defaultPoolSize();
+        AtomicInteger threadIndex = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("oauth2.password.hash.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a hasher thread")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing requests being processed")
+                .register(meterRegistry);
+        queueWaitTimer = Timer.builder("oauth2.password.hash.queue.wait")
+                .description("Time a password hashing request waited for a hasher thread")
+                .register(meterRegistry);
+        rejectedCounter = meterRegistry.counter("oauth2.password.hash.rejected");
+        timedOutCounter = meterRegistry.counter("oauth2.password.hash.timed_out");
+
+        log.info("Password hashing executor ready: threads={}, queue={}, max-wait={}ms",
+                poolSize, queueCapacity, maxWaitMs);
+    }
+
+    private int defaultPoolSize() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return workerThreads.map(max -> Math.max(1, Math.min(cores, max / 2))).orElse(cores);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a hashing operation on the pool and wait for it.
+     * Throws SERVICE_UNAVAILABLE when the queue is full or the wait exceeds max-wait-ms.
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer durationTimer = durationTimers.computeIfAbsent(operation, op -> Timer.builder("oauth2.password.hash.duration")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", op)
+                .register(meterRegistry));
+
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return durationTimer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing saturated, rejecting {}", operation);
+            throw busy();
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the task if it is still queued; a running hash is left to finish
+            future.cancel(false);
+            timedOutCounter.increment();
+            log.warn("Password hashing {} waited more than {}ms", operation, maxWaitMs);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private ApplicationException busy() {
+        return new ApplicationException(ErrorCode.SERVICE_UNAVAILABLE)
+                .withMetadata("retryAfter", retryAfterSeconds);
+    }
+}
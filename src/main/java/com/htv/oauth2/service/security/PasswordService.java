@@ -1,50 +1,107 @@
 package com.htv.oauth2.service.security;
 
-import io.quarkus.elytron.security.common.BcryptUtil;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
 
 // ============================================
 // Password Service
 // ============================================
 
+/**
+ * Hashes new passwords with the configured scheme (bcrypt or Argon2id) and verifies
+ * stored hashes of either scheme. At startup the active scheme's cost is calibrated
+ * to the target latency on this machine; hashes of the other scheme or below the
+ * calibrated cost report needsRehash, so logins migrate them transparently.
+ */
 @Slf4j
 @ApplicationScoped
 public class PasswordService {
 
+    @Inject
+    PasswordHashingExecutor hashingExecutor;
+
+    @Inject
+    BcryptPasswordHasher bcryptHasher;
+
+    @Inject
+    Argon2idPasswordHasher argon2idHasher;
+
+    @ConfigProperty(name = "oauth2.password-hashing.algorithm", defaultValue = "bcrypt")
+    String algorithm;
+
+    @ConfigProperty(name = "oauth2.password-hashing.calibration.enabled", defaultValue = "true")
+    boolean calibrationEnabled;
+
+    @ConfigProperty(name = "oauth2.password-hashing.calibration.target-latency-ms", defaultValue = "200")
+    long targetLatencyMs;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!algorithm.equalsIgnoreCase(bcryptHasher.algorithm()) && !algorithm.equalsIgnoreCase(argon2idHasher.algorithm())) {
+            throw new IllegalStateException("Unsupported oauth2.password-hashing.algorithm: " + algorithm);
+        }
+        PasswordHasher active = activeHasher();
+        if (calibrationEnabled) {
+            long start = System.nanoTime();
+            active.calibrate(Duration.ofMillis(targetLatencyMs));
+            log.info("Password hashing calibrated in {}ms: {} {} (target {}ms)",
+                    (System.nanoTime() - start) / 1_000_000, active.algorithm(), active.describeParameters(), targetLatencyMs);
+        } else {
+            log.info("Password hashing: {} {}", active.algorithm(), active.describeParameters());
+        }
+    }
+
     /**
-     * Hash password using BCrypt
+     * Hash password with the active scheme, on the bounded hashing pool
      */
     public String hashPassword(String plainPassword) {
-        return BcryptUtil.bcryptHash(plainPassword);
+        PasswordHasher active = activeHasher();
+        return hashingExecutor.execute("hash", () -> active.hash(plainPassword));
     }
 
     /**
-     * Verify password against hash
+     * Verify password against a hash of any supported scheme, on the bounded hashing pool
      */
     public boolean verifyPassword(String plainPassword, String hashedPassword) {
-        return BcryptUtil.matches(plainPassword, hashedPassword);
+        PasswordHasher hasher = hasherFor(hashedPassword);
+        if (hasher == null) {
+            log.warn("Unrecognized password hash format");
+            return false;
+        }
+        return hashingExecutor.execute("verify", () -> hasher.verify(plainPassword, hashedPassword));
     }
 
     /**
-     * Check if password needs rehashing (e.g., algorithm upgrade)
+     * Check if password needs rehashing: other scheme than the active one, or weaker
+     * than its calibrated parameters. Stronger hashes (e.g. from a faster node) are kept.
      */
     public boolean needsRehash(String hashedPassword) {
-        // BCrypt format: $2a$rounds$salt+hash
-        // Current recommended rounds: 10-12
-        if (hashedPassword == null || !hashedPassword.startsWith("$2")) {
+        PasswordHasher active = activeHasher();
+        if (hashedPassword == null || !active.supports(hashedPassword)) {
             return true;
         }
+        return active.needsRehash(hashedPassword);
+    }
 
-        try {
-            String[] parts = hashedPassword.split("\\$");
-            if (parts.length < 4) return true;
+    private PasswordHasher activeHasher() {
+        return argon2idHasher.algorithm().equalsIgnoreCase(algorithm) ? argon2idHasher : bcryptHasher;
+    }
 
-            int rounds = Integer.parseInt(parts[2]);
-            return rounds < 10; // Rehash if using less than 10 rounds
-        } catch (Exception e) {
-            log.warn("Failed to parse BCrypt hash format", e);
-            return true;
+    private PasswordHasher hasherFor(String hashedPassword) {
+        if (hashedPassword == null) {
+            return null;
+        }
+        for (PasswordHasher hasher : List.<PasswordHasher>of(argon2idHasher, bcryptHasher)) {
+            if (hasher.supports(hashedPassword)) {
+                return hasher;
+            }
         }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,225 @@
+package com.htv.oauth2.service.token;
+
+import com.htv.oauth2.cache.RevocationCache;
+import com.htv.oauth2.cache.RevocationCache.TokenRef;
+import com.htv.oauth2.repository.AccessTokenRepository;
+import com.htv.oauth2.repository.AccessTokenRepository.RevokedToken;
+import com.htv.oauth2.service.cache.CacheService;
+import com.htv.oauth2.util.CryptoUtil;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.redis.datasource.pubsub.PubSubCommands.RedisSubscriber;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ============================================
+// Revocation Registry
+// ============================================
+
+/**
+ * In-process set of revoked access tokens, kept in sync across nodes over Redis pub/sub.
+ * Entries (token hashes, and jtis of stateless tokens) live until the token's exp. The set is rebuilt on
+ * startup and after every lost subscription: token hashes from the database, jtis and
+ * user-wide revocations from their Redis indexes. Until all three have loaded
+ * {@link #isSynced()} is false and callers fall back to Redis or the database.
+ */
+@Slf4j
+@ApplicationScoped
+public class RevocationRegistry {
+
+    private static final String CHANNEL = "oauth2:revocations";
+    private static final String TOKEN_EVENT = "T";
+    private static final String USER_EVENT = "U";
+    private static final String JTI_EVENT = "J";
+    private static final long USER_REVOCATION_TTL = 86400; // same bound as RevocationCache
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    RevocationCache revocationCache;
+
+    @Inject
+    AccessTokenRepository accessTokenRepository;
+
+    // token hash -> exp, stateless jti -> exp, user id -> revoked-at (epoch seconds)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    private volatile RedisSubscriber subscriber;
+    private volatile boolean synced;
+
+    void onStart(@Observes StartupEvent ev) {
+        resync();
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        RedisSubscriber current = subscriber;
+        subscriber = null;
+        if (current != null) {
+            current.unsubscribe();
+        }
+    }
+
+    // ============= Revocation =============
+
+    /**
+     * Revoke one access token on every node
+     */
+    public void revokeToken(String tokenHash, Instant expiresAt) {
+        revokedTokens.put(tokenHash, expiresAt.getEpochSecond());
+        revocationCache.markTokenRevoked(tokenHash, expiresAt);
+        cacheService.publish(CHANNEL, TOKEN_EVENT + ":" + expiresAt.getEpochSecond() + ":" + tokenHash);
+    }
+
+    /**
+     * Deny-list a stateless access token's jti on every node until its exp
+     */
+    public void revokeJti(String jti, Instant expiresAt) {
+        revokedJtis.put(jti, expiresAt.getEpochSecond());
+        revocationCache.markJtiRevoked(jti, expiresAt);
+        cacheService.publish(CHANNEL, JTI_EVENT + ":" + expiresAt.getEpochSecond() + ":" + jti);
+    }
+
+    /**
+     * Revoke every access token issued to the user up to now on every node
+     */
+    public void revokeUser(String userId) {
+        long now = Instant.now().getEpochSecond();
+        revokedUsers.merge(userId, now, Math::max);
+        revocationCache.markUserRevoked(userId);
+        cacheService.publish(CHANNEL, USER_EVENT + ":" + now + ":" + userId);
+    }
+
+    // ============= Lookup =============
+
+    /**
+     * Whether the local set can be trusted, i.e. no revocation may have been missed
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public boolean isRevoked(TokenRef token) {
+        if (revokedTokens.containsKey(token.tokenHash())) {
+            return true;
+        }
+        if (token.jti() != null && revokedJtis.containsKey(token.jti())) {
+            return true;
+        }
+        Long userRevokedAt = token.userId() != null ? revokedUsers.get(token.userId()) : null;
+        return userRevokedAt != null && token.issuedAt() <= userRevokedAt;
+    }
+
+    public int size() {
+        return revokedTokens.size() + revokedJtis.size() + revokedUsers.size();
+    }
+
+    // ============= Sync =============
+
+    /**
+     * Resubscribe and rebuild after a lost subscription; also drops expired entries
+     */
+    @Scheduled(every = "${oauth2.revocation.resync-interval:15s}", identity = "revocation-resync")
+    void resync() {
+        purgeExpired();
+        if (subscriber != null) {
+            return;
+        }
+
+        Optional<RedisSubscriber> subscription = cacheService.subscribe(
+                CHANNEL, this::onMessage, this::onSubscriptionLost, this::onSubscriptionError);
+        if (subscription.isEmpty()) {
+            log.warn("Revocation channel unavailable, local revocation checks disabled");
+            return;
+        }
+        subscriber = subscription.get();
+
+        // Subscribe first so nothing published during the rebuild is missed
+        try {
+            List<RevokedToken> revoked = QuarkusTransaction.requiringNew()
+                    .call(accessTokenRepository::findRevokedUnexpired);
+            revoked.forEach(token -> revokedTokens.put(
+                    CryptoUtil.base64Url(token.tokenHash()), token.expiresAt().getEpochSecond()));
+
+            // Stateless tokens have no row; their deny-list lives only in Redis
+            Optional<Map<String, Long>> jtis = revocationCache.getRevokedJtis();
+            if (jtis.isEmpty()) {
+                log.warn("Failed to load jti deny-list from Redis, will resync");
+                subscriber.unsubscribe();
+                subscriber = null;
+                return;
+            }
+            revokedJtis.putAll(jtis.get());
+
+            // User-wide revocations are not visible in rows of stateless or reference tokens
+            Optional<Map<String, Long>> users = revocationCache.getRevokedUsers();
+            if (users.isEmpty()) {
+                log.warn("Failed to load user revocations from Redis, will resync");
+                subscriber.unsubscribe();
+                subscriber = null;
+                return;
+            }
+            users.get().forEach((userId, revokedAt) -> revokedUsers.merge(userId, revokedAt, Math::max));
+
+            synced = true;
+            log.info("Revocation registry synced: {} revoked tokens, {} revoked jtis, {} revoked users",
+                    revoked.size(), jtis.get().size(), users.get().size());
+        } catch (Exception e) {
+            // Drop the subscription so the next run retries the whole rebuild
+            log.error("Failed to rebuild revocation registry from database, will resync", e);
+            subscriber.unsubscribe();
+            subscriber = null;
+        }
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed revocation event: {}", message);
+            return;
+        }
+
+        try {
+            long epochSecond = Long.parseLong(parts[1]);
+            switch (parts[0]) {
+                case TOKEN_EVENT -> revokedTokens.put(parts[2], epochSecond);
+                case USER_EVENT -> revokedUsers.merge(parts[2], epochSecond, Math::max);
+                case JTI_EVENT -> revokedJtis.put(parts[2], epochSecond);
+                default -> log.warn("Unknown revocation event type: {}", parts[0]);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation event: {}", message);
+        }
+    }
+
+    private void onSubscriptionLost() {
+        synced = false;
+        subscriber = null;
+        log.warn("Revocation subscription ended, will resync");
+    }
+
+    private void onSubscriptionError(Throwable error) {
+        synced = false;
+        subscriber = null;
+        log.error("Revocation subscription failed, will resync", error);
+    }
+
+    private void purgeExpired() {
+        long now = Instant.now().getEpochSecond();
+        revokedTokens.values().removeIf(exp -> exp < now);
+        revokedJtis.values().removeIf(exp -> exp < now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + USER_REVOCATION_TTL < now);
+    }
+}
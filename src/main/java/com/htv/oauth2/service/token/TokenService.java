@@ -1,5 +1,12 @@
 package com.htv.oauth2.service.token;
 
+import com.htv.oauth2.cache.ClientTokenCache;
+import com.htv.oauth2.cache.ClientTokenCache.ClientToken;
+import com.htv.oauth2.cache.RevocationCache;
+import com.htv.oauth2.cache.RevocationCache.RevocationState;
+import com.htv.oauth2.cache.RevocationCache.TokenRef;
+import com.htv.oauth2.cache.TokenCache;
+import com.htv.oauth2.cache.TokenCache.ReferenceToken;
 import com.htv.oauth2.domain.*;
 import com.htv.oauth2.dto.response.TokenIntrospectionResponse;
 import com.htv.oauth2.dto.response.TokenResponse;
@@ -7,15 +14,41 @@ import com.htv.oauth2.exception.ApplicationException;
 import com.htv.oauth2.exception.ErrorCode;
 import com.htv.oauth2.mapper.TokenMapper;
 import com.htv.oauth2.repository.*;
+import com.htv.oauth2.repository.RefreshTokenRepository.ConsumedRefreshToken;
+import com.htv.oauth2.service.cleanup.CleanupEngine;
+import com.htv.oauth2.service.cleanup.CleanupTask;
+import com.htv.oauth2.service.client.ClientSnapshot;
+import com.htv.oauth2.service.lease.Lease;
+import com.htv.oauth2.service.scope.ScopeRegistry;
+import com.htv.oauth2.service.scope.ScopeSet;
 import com.htv.oauth2.util.CryptoUtil;
 import com.htv.oauth2.util.DateTimeUtil;
 import com.htv.oauth2.util.JwtUtil;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.MalformedClaimException;
+import org.jose4j.jwt.NumericDate;
+import org.jose4j.jwt.consumer.InvalidJwtException;
 
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
 
 // ============================================
 // Token Service
@@ -25,42 +58,132 @@ import java.util.Set;
 @ApplicationScoped
 public class TokenService {
 
+    private static final int REFERENCE_TOKEN_BYTES = 32;
+
     @Inject
     AccessTokenRepository accessTokenRepository;
 
     @Inject
     RefreshTokenRepository refreshTokenRepository;
 
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    ClientRepository clientRepository;
+
+    @Inject
+    TokenPartitionRepository tokenPartitionRepository;
+
+    @Inject
+    JobFenceRepository jobFenceRepository;
+
+    @Inject
+    CleanupEngine cleanupEngine;
+
+    @Inject
+    ScopeRegistry scopeRegistry;
+
     @Inject
     JwtUtil jwtUtil;
 
     @Inject
     TokenMapper tokenMapper;
 
+    @Inject
+    RevocationCache revocationCache;
+
+    @Inject
+    RevocationRegistry revocationRegistry;
+
+    @Inject
+    TokenWriteBehindQueue writeBehindQueue;
+
+    @Inject
+    ClientTokenCache clientTokenCache;
+
+    @Inject
+    TokenCache tokenCache;
+
+    @ConfigProperty(name = "oauth2.introspection.local-verification", defaultValue = "true")
+    boolean localIntrospection;
+
+    @ConfigProperty(name = "oauth2.client-credentials.token-reuse.enabled", defaultValue = "true")
+    boolean clientTokenReuse;
+
+    @ConfigProperty(name = "oauth2.client-credentials.token-reuse.refresh-ahead-seconds", defaultValue = "60")
+    long refreshAheadSeconds;
+
+    @ConfigProperty(name = "oauth2.client-credentials.token-reuse.refresh-ahead-ratio", defaultValue = "0.1")
+    double refreshAheadRatio;
+
+    @ConfigProperty(name = "oauth2.token-partitions.premake-days", defaultValue = "7")
+    int partitionPremakeDays;
+
+    @ConfigProperty(name = "oauth2.token-partitions.retention-days", defaultValue = "1")
+    int partitionRetentionDays;
+
+    @ConfigProperty(name = "oauth2.token-partitions.lock-timeout-ms", defaultValue = "5000")
+    long partitionLockTimeoutMs;
+
     /**
      * Generate access and refresh tokens
      */
     @Transactional
-    public TokenResponse generateTokens(User user, Client client, Set<String> scopes) {
+    public TokenResponse generateTokens(User user, ClientSnapshot client, Set<String> scopes) {
+        return issueTokens(user, user.getUsername(), client, scopes);
+    }
+
+    /**
+     * Issue a token pair; username is passed separately so a lazy User reference
+     * can be used without loading the row
+     */
+    private TokenResponse issueTokens(User user, String username, ClientSnapshot client, Set<String> scopes) {
         log.info("Generating tokens for user {} and client {}", user.getId(), client.getClientId());
 
-        // Generate JWT access token
-        String accessTokenValue = jwtUtil.generateAccessToken(
-                user.getId(),
-                client.getClientId(),
-                scopes
-        );
+        ScopeSet granted = scopeRegistry.of(scopes);
+        String accessTokenValue;
+        AccessToken accessToken = null;
+        String statelessJti = null;
+        String referenceHash = null;
 
-        // Create access token entity
-        AccessToken accessToken = AccessToken.builder()
-                .token(accessTokenValue)
-                .clientId(client.getClientId())
-                .user(user)
-                .scopes(scopes)
-                .expiresAt(DateTimeUtil.expiresAt(client.getAccessTokenValidity()))
-                .build();
+        switch (client.getAccessTokenFormat()) {
+            case STATELESS_JWT -> {
+                // No access_tokens row; the jti on the refresh token lets rotation and revocation find it
+                Instant issuedAt = Instant.now();
+                statelessJti = UUID.randomUUID().toString();
+                accessTokenValue = jwtUtil.generateAccessToken(user.getId(), username, client.getClientId(), scopes,
+                        statelessJti, issuedAt, issuedAt.plusSeconds(client.getAccessTokenValidity()), true);
+            }
+            case REFERENCE -> {
+                // Opaque token, metadata only in Redis; nothing to sign and no access_tokens row
+                accessTokenValue = CryptoUtil.generateSecureToken(REFERENCE_TOKEN_BYTES);
+                referenceHash = CryptoUtil.sha256(accessTokenValue);
+                long issuedAt = Instant.now().getEpochSecond();
+                ReferenceToken reference = new ReferenceToken(user.getId(), username, client.getClientId(),
+                        granted.toIds(), issuedAt, issuedAt + client.getAccessTokenValidity());
+                if (!tokenCache.storeReferenceToken(referenceHash, reference)) {
+                    throw new ApplicationException(ErrorCode.SERVICE_UNAVAILABLE, "Token store unavailable");
+                }
+            }
+            default -> {
+                // Generate JWT access token; exp is the row's expires_at to the second, so
+                // lookups can name the partition (see AccessTokenRepository.findByToken)
+                Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+                Instant expiresAt = issuedAt.plusSeconds(client.getAccessTokenValidity());
+                accessTokenValue = jwtUtil.generateAccessToken(user.getId(), username, client.getClientId(), scopes,
+                        UUID.randomUUID().toString(), issuedAt, expiresAt, false);
 
-        accessTokenRepository.persist(accessToken);
+                // Create access token entity
+                accessToken = AccessToken.builder()
+                        .token(accessTokenValue)
+                        .clientId(client.getClientId())
+                        .user(user)
+                        .scopes(granted)
+                        .expiresAt(expiresAt)
+                        .build();
+            }
+        }
 
         // Generate refresh token
         String refreshTokenValue = CryptoUtil.generateSecureToken(64);
@@ -68,12 +191,21 @@ public class TokenService {
         RefreshToken refreshToken = RefreshToken.builder()
                 .token(refreshTokenValue)
                 .accessToken(accessToken)
+                .accessTokenJti(statelessJti)
+                .accessTokenRef(referenceHash)
+                .scopes(accessToken == null ? granted : null)
                 .clientId(client.getClientId())
                 .user(user)
                 .expiresAt(DateTimeUtil.expiresAt(client.getRefreshTokenValidity()))
                 .build();
 
-        refreshTokenRepository.persist(refreshToken);
+        // Hand off to the write-behind flusher; persist inline when disabled or saturated
+        if (!writeBehindQueue.offer(accessToken, refreshToken)) {
+            if (accessToken != null) {
+                accessTokenRepository.persist(accessToken);
+            }
+            refreshTokenRepository.persist(refreshToken);
+        }
 
         // Build response
         return TokenResponse.builder()
@@ -86,57 +218,163 @@ public class TokenService {
                 .build();
     }
 
+    /**
+     * Issue (or reuse) a client_credentials access token; no user and no refresh token.
+     * A cached token for the same client and scope set is returned until
+     * max(refresh-ahead-seconds, refresh-ahead-ratio * validity) before it expires.
+     */
+    @Transactional
+    public TokenResponse issueClientCredentialsToken(ClientSnapshot client, Set<String> scopes) {
+        ScopeSet granted = scopeRegistry.of(scopes);
+        boolean reuse = clientTokenReuse && client.isClientTokenReuse();
+
+        if (reuse) {
+            Optional<ClientToken> cached = clientTokenCache.get(client, granted)
+                    .filter(token -> revocationRegistry.isSynced()
+                            && !revocationRegistry.isRevoked(new TokenRef(token.tokenHash(), null, null, token.issuedAt())));
+            if (cached.isPresent()) {
+                log.debug("Reusing client_credentials token for client {}", client.getClientId());
+                return clientCredentialsResponse(cached.get().token(), cached.get().expiresAt(), granted);
+            }
+        }
+
+        log.info("Generating client_credentials token for client {}", client.getClientId());
+
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        int validity = client.getAccessTokenValidity();
+        Instant expiresAt = issuedAt.plusSeconds(validity);
+        String accessTokenValue = jwtUtil.generateClientAccessToken(client.getClientId(), granted, issuedAt, expiresAt);
+        byte[] tokenHash = CryptoUtil.sha256Bytes(accessTokenValue);
+
+        AccessToken accessToken = AccessToken.builder()
+                .token(accessTokenValue)
+                .tokenHash(tokenHash)
+                .clientId(client.getClientId())
+                .scopes(granted)
+                .expiresAt(expiresAt)
+                .build();
+
+        if (!writeBehindQueue.offer(accessToken, null)) {
+            accessTokenRepository.persist(accessToken);
+        }
+
+        if (reuse) {
+            long margin = Math.max(refreshAheadSeconds, (long) (validity * refreshAheadRatio));
+            clientTokenCache.put(client, granted, new ClientToken(client, accessTokenValue,
+                    CryptoUtil.base64Url(tokenHash), issuedAt.getEpochSecond(), expiresAt, expiresAt.minusSeconds(margin)));
+        }
+
+        return clientCredentialsResponse(accessTokenValue, expiresAt, granted);
+    }
+
+    private TokenResponse clientCredentialsResponse(String accessTokenValue, Instant expiresAt, ScopeSet scopes) {
+        return TokenResponse.builder()
+                .accessToken(accessTokenValue)
+                .tokenType("Bearer")
+                .expiresIn(Math.max(0, expiresAt.getEpochSecond() - Instant.now().getEpochSecond()))
+                .scope(String.join(" ", scopes))
+                .build();
+    }
+
     /**
      * Refresh access token
+     * The old pair is consumed by a single conditional UPDATE, so of several
+     * concurrent refreshes with the same token exactly one succeeds.
      */
     @Transactional
-    public TokenResponse refreshToken(String refreshTokenValue, Client client) {
+    public TokenResponse refreshToken(String refreshTokenValue, ClientSnapshot client) {
         log.info("Refreshing token for client {}", client.getClientId());
 
-        // Find and validate refresh token
-        RefreshToken refreshToken = refreshTokenRepository.findValidToken(refreshTokenValue)
+        // Revoke old refresh and access token; wrong client, expired or already used yields nothing
+        ConsumedRefreshToken consumed = refreshTokenRepository.consumeForRotation(refreshTokenValue, client.getClientId())
                 .orElseThrow(() -> new ApplicationException(ErrorCode.INVALID_TOKEN, "Invalid or expired refresh token"));
 
-        // Validate client
-        if (!refreshToken.getClientId().equals(client.getClientId())) {
-            throw new ApplicationException(ErrorCode.INVALID_CLIENT ,"Refresh token does not belong to this client");
+        // Old access token lives at most one validity period from now
+        Instant oldAccessExpiresAt = DateTimeUtil.expiresAt(client.getAccessTokenValidity());
+        if (consumed.accessTokenHash() != null) {
+            revocationRegistry.revokeToken(CryptoUtil.base64Url(consumed.accessTokenHash()), oldAccessExpiresAt);
+        }
+        if (consumed.accessTokenJti() != null) {
+            revocationRegistry.revokeJti(consumed.accessTokenJti(), oldAccessExpiresAt);
+        }
+        if (consumed.accessTokenRef() != null) {
+            tokenCache.removeReferenceToken(consumed.accessTokenRef());
         }
-
-        // Revoke old tokens
-        accessTokenRepository.revokeToken(refreshToken.getAccessToken().getToken());
-        refreshTokenRepository.revokeToken(refreshTokenValue);
 
         // Generate new tokens
-        return generateTokens(
-                refreshToken.getUser(),
-                client,
-                refreshToken.getAccessToken().getScopes()
-        );
+        User user = userRepository.getEntityManager().getReference(User.class, consumed.userId());
+        return issueTokens(user, consumed.username(), client, scopeRegistry.fromIds(consumed.scopeIds()));
     }
 
     /**
      * Validate access token
+     * Signature and exp are checked locally and revocation against the in-process
+     * registry; Redis and then the database are only used while the registry is resyncing.
+     * Reference tokens are resolved from Redis and returned as equivalent claims.
      */
-    public AccessToken validateToken(String tokenValue) {
-        AccessToken token = accessTokenRepository.findValidToken(tokenValue)
-                .orElseThrow(() -> new ApplicationException(ErrorCode.INVALID_TOKEN ,"Invalid or expired access token"));
+    public JwtClaims validateToken(String tokenValue) {
+        if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+            return resolveReference(tokenValue)
+                    .map(this::toClaims)
+                    .orElseThrow(() -> new ApplicationException(ErrorCode.INVALID_TOKEN, "Invalid or expired access token"));
+        }
+
+        JwtClaims claims;
+        try {
+            claims = jwtUtil.verifyAccessToken(tokenValue);
+        } catch (InvalidJwtException e) {
+            if (e.hasExpired()) {
+                throw new ApplicationException(ErrorCode.EXPIRED_TOKEN, "Token has expired");
+            }
+            throw new ApplicationException(ErrorCode.INVALID_TOKEN, "Invalid or expired access token");
+        }
 
-        if (!token.isValid()) {
-            if (token.getRevoked()) {
+        try {
+            if (!"access_token".equals(claims.getClaimValueAsString("token_type"))) {
+                throw new ApplicationException(ErrorCode.INVALID_TOKEN, "Invalid or expired access token");
+            }
+
+            RevocationState state = getRevocationState(tokenValue, claims);
+            if (state == RevocationState.UNKNOWN && JwtUtil.isStateless(claims)) {
+                // No row to fall back to and the registry may have missed a revocation: fail closed
+                throw new ApplicationException(ErrorCode.INVALID_TOKEN, "Token revocation state unavailable");
+            }
+            if (state == RevocationState.UNKNOWN) {
+                Instant exp = Instant.ofEpochSecond(claims.getExpirationTime().getValue());
+                state = accessTokenRepository.findByToken(tokenValue, exp)
+                        .filter(token -> !token.getRevoked())
+                        .map(token -> RevocationState.ACTIVE)
+                        .orElse(RevocationState.REVOKED);
+            }
+            if (state == RevocationState.REVOKED) {
                 throw new ApplicationException(ErrorCode.TOKEN_REVOKED, "Token has been revoked");
-            } else {
-                throw new ApplicationException(ErrorCode.EXPIRED_TOKEN ,"Token has expired");
             }
+        } catch (MalformedClaimException e) {
+            throw new ApplicationException(ErrorCode.INVALID_TOKEN, "Invalid or expired access token");
         }
 
-        return token;
+        return claims;
     }
 
     /**
      * Introspect token
+     * JWTs are verified locally and checked against the revocation cache;
+     * reference tokens are a single Redis GET. The database is only consulted when
+     * revocation state is unknown or local verification is disabled.
      */
     public TokenIntrospectionResponse introspectToken(String tokenValue) {
-        return accessTokenRepository.findByToken(tokenValue)
+        if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+            return introspectReference(tokenValue);
+        }
+        if (localIntrospection) {
+            Optional<TokenIntrospectionResponse> local = introspectLocally(tokenValue);
+            if (local.isPresent()) {
+                return local.get();
+            }
+        }
+
+        return accessTokenExpiry(tokenValue)
+                .flatMap(exp -> accessTokenRepository.findByToken(tokenValue, exp))
                 .map(token -> {
                     if (token.isValid()) {
                         return tokenMapper.toIntrospectionResponse(token);
@@ -146,9 +384,251 @@ public class TokenService {
                                 .build();
                     }
                 })
-                .orElse(TokenIntrospectionResponse.builder()
-                        .active(false)
-                        .build());
+                .orElseGet(() -> introspectStateless(tokenValue));
+    }
+
+    /**
+     * Stateless tokens have no row, so they are verified locally even when
+     * local verification is disabled for persisted tokens
+     */
+    private TokenIntrospectionResponse introspectStateless(String tokenValue) {
+        if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+            return inactiveToken();
+        }
+        try {
+            if (!JwtUtil.isStateless(jwtUtil.verifyAccessToken(tokenValue))) {
+                return inactiveToken();
+            }
+        } catch (Exception e) {
+            return inactiveToken();
+        }
+        return introspectLocally(tokenValue).orElseGet(this::inactiveToken);
+    }
+
+    /**
+     * Reference tokens live only in Redis: a missing key is unknown, expired or revoked
+     */
+    private TokenIntrospectionResponse introspectReference(String tokenValue) {
+        return resolveReference(tokenValue)
+                .map(token -> tokenMapper.toIntrospectionResponse(token, scopeRegistry.fromIds(token.scopeIds())))
+                .orElseGet(this::inactiveToken);
+    }
+
+    private Optional<ReferenceToken> resolveReference(String tokenValue) {
+        String tokenHash = CryptoUtil.sha256(tokenValue);
+        return tokenCache.getReferenceToken(tokenHash)
+                .filter(token -> isActiveReference(token, getRevocationState(referenceRef(tokenHash, token))));
+    }
+
+    private static boolean isActiveReference(ReferenceToken token, RevocationState state) {
+        // Revoking one token or all of a user's deletes the key; the user marker covers keys missed by revoke-all
+        return token.expiresAt() > Instant.now().getEpochSecond() && state == RevocationState.ACTIVE;
+    }
+
+    private static TokenRef referenceRef(String tokenHash, ReferenceToken token) {
+        return new TokenRef(tokenHash, null, token.userId(), token.issuedAt());
+    }
+
+    private JwtClaims toClaims(ReferenceToken token) {
+        JwtClaims claims = new JwtClaims();
+        claims.setSubject(token.userId());
+        claims.setIssuedAt(NumericDate.fromSeconds(token.issuedAt()));
+        claims.setExpirationTime(NumericDate.fromSeconds(token.expiresAt()));
+        claims.setClaim("scope", String.join(" ", scopeRegistry.fromIds(token.scopeIds())));
+        claims.setClaim("client_id", token.clientId());
+        claims.setClaim("username", token.username());
+        claims.setClaim("token_type", "access_token");
+        return claims;
+    }
+
+    private Optional<TokenIntrospectionResponse> introspectLocally(String tokenValue) {
+        JwtClaims claims;
+        try {
+            claims = jwtUtil.verifyAccessToken(tokenValue);
+        } catch (InvalidJwtException e) {
+            // Bad signature, wrong issuer or expired: never active, no need to ask the database
+            log.debug("Local token verification failed: {}", e.getMessage());
+            return Optional.of(inactiveToken());
+        } catch (Exception e) {
+            log.warn("Local token verification unavailable, falling back to database: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        try {
+            if (!"access_token".equals(claims.getClaimValueAsString("token_type"))) {
+                return Optional.of(inactiveToken());
+            }
+
+            RevocationState state = getRevocationState(tokenValue, claims);
+            if (state == RevocationState.UNKNOWN && JwtUtil.isStateless(claims)) {
+                // No row to fall back to: fail closed
+                return Optional.of(inactiveToken());
+            }
+
+            return switch (state) {
+                case ACTIVE -> Optional.of(tokenMapper.toIntrospectionResponse(claims));
+                case REVOKED -> Optional.of(inactiveToken());
+                case UNKNOWN -> Optional.empty();
+            };
+        } catch (Exception e) {
+            log.warn("Failed to read token claims, falling back to database: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Introspect many tokens at once, responses in request order
+     * JWTs are verified locally, revocation is resolved in one registry or MGET pass,
+     * and whatever is still undecided is loaded with a single IN query.
+     */
+    public List<TokenIntrospectionResponse> introspectTokens(List<String> tokenValues) {
+        TokenIntrospectionResponse[] responses = new TokenIntrospectionResponse[tokenValues.size()];
+        List<VerifiedToken> verified = new ArrayList<>();
+        Map<String, Integer> references = new HashMap<>();
+
+        for (int i = 0; i < tokenValues.size(); i++) {
+            String tokenValue = tokenValues.get(i);
+            if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+                references.put(CryptoUtil.sha256(tokenValue), i);
+                continue;
+            }
+            if (!localIntrospection) {
+                continue;
+            }
+            try {
+                JwtClaims claims = jwtUtil.verifyAccessToken(tokenValue);
+                if (!"access_token".equals(claims.getClaimValueAsString("token_type"))) {
+                    responses[i] = inactiveToken();
+                    continue;
+                }
+                verified.add(new VerifiedToken(i, claims, tokenRef(tokenValue, claims)));
+            } catch (InvalidJwtException e) {
+                responses[i] = inactiveToken();
+            } catch (Exception e) {
+                log.warn("Local token verification unavailable, falling back to database: {}", e.getMessage());
+            }
+        }
+
+        if (!references.isEmpty()) {
+            introspectReferences(references, responses);
+        }
+
+        List<RevocationState> states = getRevocationStates(verified.stream().map(VerifiedToken::ref).toList());
+        for (int j = 0; j < verified.size(); j++) {
+            VerifiedToken token = verified.get(j);
+            RevocationState state = states.get(j);
+            if (state == RevocationState.UNKNOWN && JwtUtil.isStateless(token.claims())) {
+                state = RevocationState.REVOKED; // no row to fall back to: fail closed
+            }
+            try {
+                switch (state) {
+                    case ACTIVE -> responses[token.index()] = tokenMapper.toIntrospectionResponse(token.claims());
+                    case REVOKED -> responses[token.index()] = inactiveToken();
+                    case UNKNOWN -> { }
+                }
+            } catch (MalformedClaimException e) {
+                log.warn("Failed to read token claims, falling back to database: {}", e.getMessage());
+            }
+        }
+
+        Map<String, Instant> remaining = new HashMap<>();
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i] == null) {
+                Optional<Instant> expiresAt = accessTokenExpiry(tokenValues.get(i));
+                if (expiresAt.isPresent()) {
+                    remaining.put(tokenValues.get(i), expiresAt.get());
+                } else {
+                    responses[i] = inactiveToken(); // does not verify: cannot be active
+                }
+            }
+        }
+        if (!remaining.isEmpty()) {
+            Map<String, AccessToken> found = new HashMap<>();
+            accessTokenRepository.findByTokens(remaining).forEach(token -> found.put(token.getToken(), token));
+            for (int i = 0; i < responses.length; i++) {
+                if (responses[i] == null) {
+                    AccessToken token = found.get(tokenValues.get(i));
+                    if (token == null) {
+                        responses[i] = introspectStateless(tokenValues.get(i));
+                    } else {
+                        responses[i] = token.isValid() ? tokenMapper.toIntrospectionResponse(token) : inactiveToken();
+                    }
+                }
+            }
+        }
+
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Resolve reference tokens (hash -> response index) with one MGET and one revocation pass
+     */
+    private void introspectReferences(Map<String, Integer> references, TokenIntrospectionResponse[] responses) {
+        Map<String, ReferenceToken> found = tokenCache.getReferenceTokens(references.keySet());
+        List<String> hashes = new ArrayList<>(found.keySet());
+        List<RevocationState> states = getRevocationStates(
+                hashes.stream().map(hash -> referenceRef(hash, found.get(hash))).toList());
+
+        for (int j = 0; j < hashes.size(); j++) {
+            String hash = hashes.get(j);
+            ReferenceToken token = found.get(hash);
+            if (isActiveReference(token, states.get(j))) {
+                responses[references.get(hash)] =
+                        tokenMapper.toIntrospectionResponse(token, scopeRegistry.fromIds(token.scopeIds()));
+            }
+        }
+        references.values().forEach(index -> {
+            if (responses[index] == null) {
+                responses[index] = inactiveToken();
+            }
+        });
+    }
+
+    private List<RevocationState> getRevocationStates(List<TokenRef> refs) {
+        if (refs.isEmpty()) {
+            return List.of();
+        }
+        if (revocationRegistry.isSynced()) {
+            return refs.stream()
+                    .map(ref -> revocationRegistry.isRevoked(ref)
+                            ? RevocationState.REVOKED
+                            : RevocationState.ACTIVE)
+                    .toList();
+        }
+        return revocationCache.getStates(refs);
+    }
+
+    private record VerifiedToken(int index, JwtClaims claims, TokenRef ref) {}
+
+    /**
+     * Local registry when synced, otherwise one Redis round trip
+     */
+    private RevocationState getRevocationState(String tokenValue, JwtClaims claims) throws MalformedClaimException {
+        return getRevocationState(tokenRef(tokenValue, claims));
+    }
+
+    private RevocationState getRevocationState(TokenRef ref) {
+        if (revocationRegistry.isSynced()) {
+            return revocationRegistry.isRevoked(ref)
+                    ? RevocationState.REVOKED
+                    : RevocationState.ACTIVE;
+        }
+        return revocationCache.getState(ref);
+    }
+
+    private static TokenRef tokenRef(String tokenValue, JwtClaims claims) throws MalformedClaimException {
+        return new TokenRef(
+                CryptoUtil.sha256(tokenValue),
+                JwtUtil.isStateless(claims) ? claims.getJwtId() : null,
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getValue() : 0L
+        );
+    }
+
+    private TokenIntrospectionResponse inactiveToken() {
+        return TokenIntrospectionResponse.builder()
+                .active(false)
+                .build();
     }
 
     /**
@@ -158,40 +638,221 @@ public class TokenService {
     public void revokeToken(String tokenValue) {
         log.info("Revoking token");
 
-        // Try as access token first
-        accessTokenRepository.findByToken(tokenValue)
+        // Reference tokens: deleting the key is the revocation
+        if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+            String tokenHash = CryptoUtil.sha256(tokenValue);
+            if (tokenCache.removeReferenceToken(tokenHash).isPresent()) {
+                // A refresh token still queued is written revoked
+                if (!writeBehindQueue.revokePendingByAccessTokenRef(tokenHash)) {
+                    refreshTokenRepository.revokeByAccessTokenRef(tokenHash);
+                }
+                return;
+            }
+        }
+
+        // Not inserted yet: it is written revoked; deny-list an access token that may already be in use
+        if (writeBehindQueue.revokePending(tokenValue)) {
+            denyListQueuedAccessToken(tokenValue);
+            return;
+        }
+
+        // Try as access token first (an expired one needs no revoking)
+        accessTokenExpiry(tokenValue)
+                .flatMap(exp -> accessTokenRepository.findByToken(tokenValue, exp))
                 .ifPresentOrElse(
                         accessToken -> {
-                            accessTokenRepository.revokeToken(tokenValue);
+                            accessTokenRepository.revokeToken(tokenValue, accessToken.getExpiresAt());
                             // Also revoke associated refresh token
                             refreshTokenRepository.revokeByAccessTokenId(accessToken.getId());
+                            revocationRegistry.revokeToken(CryptoUtil.sha256(tokenValue), accessToken.getExpiresAt());
                         },
-                        // Try as refresh token
-                        () -> refreshTokenRepository.findByToken(tokenValue)
-                                .ifPresent(refreshToken ->
-                                        refreshTokenRepository.revokeToken(tokenValue)
-                                )
+                        // Then as stateless access token, then as refresh token
+                        () -> {
+                            if (!revokeStatelessToken(tokenValue)) {
+                                refreshTokenRepository.findByToken(tokenValue)
+                                        .ifPresent(refreshToken ->
+                                                refreshTokenRepository.revokeToken(tokenValue)
+                                        );
+                            }
+                        }
                 );
     }
 
+    private void denyListQueuedAccessToken(String tokenValue) {
+        // Refresh tokens are checked against their row only; an expired token needs no entry
+        accessTokenExpiry(tokenValue)
+                .ifPresent(expiresAt -> revocationRegistry.revokeToken(CryptoUtil.sha256(tokenValue), expiresAt));
+    }
+
+    /**
+     * exp of a JWT access token, which names its row's partition;
+     * empty for anything that does not verify, as that can never be active
+     */
+    private Optional<Instant> accessTokenExpiry(String tokenValue) {
+        if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Instant.ofEpochSecond(jwtUtil.verifyAccessToken(tokenValue).getExpirationTime().getValue()));
+        } catch (InvalidJwtException | MalformedClaimException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deny-list a stateless access token by jti and revoke the refresh token issued with it
+     */
+    private boolean revokeStatelessToken(String tokenValue) {
+        if (!jwtUtil.isValidJwtFormat(tokenValue)) {
+            return false;
+        }
+        try {
+            JwtClaims claims = jwtUtil.verifyAccessToken(tokenValue);
+            if (!JwtUtil.isStateless(claims) || claims.getJwtId() == null) {
+                return false;
+            }
+            revocationRegistry.revokeJti(claims.getJwtId(),
+                    Instant.ofEpochSecond(claims.getExpirationTime().getValue()));
+            // A refresh token still queued is written revoked
+            if (!writeBehindQueue.revokePendingByAccessTokenJti(claims.getJwtId())) {
+                refreshTokenRepository.revokeByAccessTokenJti(claims.getJwtId());
+            }
+            return true;
+        } catch (InvalidJwtException | MalformedClaimException e) {
+            // Expired or not ours: nothing left to revoke
+            return false;
+        }
+    }
+
     /**
      * Revoke all user tokens
      */
     @Transactional
     public void revokeAllUserTokens(String userId) {
         log.info("Revoking all tokens for user {}", userId);
+        // Reference tokens have no row; delete their keys so they do not depend on the user marker alone
+        tokenCache.removeReferenceTokens(refreshTokenRepository.findActiveAccessTokenRefsByUserId(userId));
         accessTokenRepository.revokeAllByUserId(userId);
         refreshTokenRepository.revokeAllByUserId(userId);
+        revocationRegistry.revokeUser(userId);
     }
 
     /**
-     * Clean up expired tokens
+     * Token partition maintenance
+     * Pre-creates daily partitions far enough ahead for the longest refresh token validity
+     * and drops partitions that expired more than the retention period ago.
+     * Refresh partitions go first; an access partition still referenced by a refresh token is kept.
+     * Each partition is created or dropped in its own transaction, so the parent's
+     * ACCESS EXCLUSIVE lock is held for one statement and waited for at most lock-timeout-ms;
+     * a step that fails is retried on the next run. Every step first checks the lease's fence,
+     * and the run stops once a newer holder has taken over.
      */
-    @Transactional
-    public void cleanupExpiredTokens() {
-        log.info("Cleaning up expired tokens");
-        long deletedAccess = accessTokenRepository.deleteExpired();
-        long deletedRefresh = refreshTokenRepository.deleteExpired();
-        log.info("Deleted {} access tokens and {} refresh tokens", deletedAccess, deletedRefresh);
+    public void maintainTokenPartitions(Lease lease) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long validityDays = Math.ceilDiv(
+                QuarkusTransaction.requiringNew().call(clientRepository::maxRefreshTokenValidity), 86400);
+        LocalDate horizon = today.plusDays(partitionPremakeDays + validityDays);
+        LocalDate dropBefore = today.minusDays(partitionRetentionDays);
+
+        int created = 0;
+        Map<String, Integer> dropped = new HashMap<>();
+        for (String table : List.of(TokenPartitionRepository.REFRESH_TOKENS, TokenPartitionRepository.ACCESS_TOKENS)) {
+            Set<LocalDate> existing = QuarkusTransaction.requiringNew()
+                    .call(() -> tokenPartitionRepository.findPartitionDays(table));
+
+            for (LocalDate day = today; !day.isAfter(horizon); day = day.plusDays(1)) {
+                LocalDate partitionDay = day;
+                if (existing.contains(partitionDay)) {
+                    continue;
+                }
+                StepResult result = partitionStep(lease, "create " + table + " " + partitionDay,
+                        () -> tokenPartitionRepository.createPartitions(table, partitionDay, partitionDay) > 0);
+                if (result == StepResult.FENCED) {
+                    return;
+                }
+                if (result == StepResult.CHANGED) {
+                    created++;
+                }
+            }
+
+            for (LocalDate partitionDay : existing.stream().filter(day -> day.isBefore(dropBefore)).sorted().toList()) {
+                StepResult result = partitionStep(lease, "drop " + table + " " + partitionDay, () -> {
+                    tokenPartitionRepository.dropPartition(table, partitionDay);
+                    return true;
+                });
+                if (result == StepResult.FENCED) {
+                    return;
+                }
+                if (result == StepResult.CHANGED) {
+                    dropped.merge(table, 1, Integer::sum);
+                }
+            }
+        }
+
+        log.info("Token partitions: created {} up to {}, dropped {} access and {} refresh", created, horizon,
+                dropped.getOrDefault(TokenPartitionRepository.ACCESS_TOKENS, 0),
+                dropped.getOrDefault(TokenPartitionRepository.REFRESH_TOKENS, 0));
+
+        // Reads only; kept out of the DDL transactions
+        for (String table : List.of(TokenPartitionRepository.ACCESS_TOKENS, TokenPartitionRepository.REFRESH_TOKENS)) {
+            long stray = QuarkusTransaction.requiringNew()
+                    .call(() -> tokenPartitionRepository.countDefaultPartitionRows(table));
+            if (stray > 0) {
+                log.warn("{} rows in {}_default; increase oauth2.token-partitions.premake-days", stray, table);
+            }
+        }
+    }
+
+    /**
+     * Run one partition DDL in its own short transaction with a bounded lock wait,
+     * committed only if the lease's fence is still the newest
+     */
+    private StepResult partitionStep(Lease lease, String step, BooleanSupplier ddl) {
+        try {
+            StepResult result = QuarkusTransaction.requiringNew().call(() -> {
+                tokenPartitionRepository.setLocalLockTimeout(partitionLockTimeoutMs);
+                if (!jobFenceRepository.advance(lease)) {
+                    return StepResult.FENCED;
+                }
+                return ddl.getAsBoolean() ? StepResult.CHANGED : StepResult.UNCHANGED;
+            });
+            if (result == StepResult.FENCED) {
+                log.warn("Token partition maintenance stopped, fenced off by a newer holder of lease {} (fence {})",
+                        lease.name(), lease.fencingToken());
+            }
+            return result;
+        } catch (Exception e) {
+            if (isForeignKeyViolation(e)) {
+                log.debug("Token partition step '{}' skipped, still referenced", step);
+            } else {
+                log.warn("Token partition step '{}' failed, retried next run: {}", step, e.getMessage());
+            }
+            return StepResult.UNCHANGED;
+        }
+    }
+
+    private enum StepResult { CHANGED, UNCHANGED, FENCED }
+
+    private static boolean isForeignKeyViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && "23503".equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Purge expired rows that fell into the default partitions
+     * Refresh tokens first; an access token still referenced by a refresh token is kept.
+     */
+    public void cleanupDefaultPartitions(Lease lease) {
+        Instant cutoff = Instant.now().minus(partitionRetentionDays, ChronoUnit.DAYS);
+        cleanupEngine.run(new CleanupTask("refresh-token-default-cleanup",
+                TokenPartitionRepository.REFRESH_TOKENS + "_default", "expires_at", cutoff), lease);
+        cleanupEngine.run(new CleanupTask("access-token-default-cleanup",
+                TokenPartitionRepository.ACCESS_TOKENS + "_default", "expires_at", cutoff,
+                "NOT EXISTS (SELECT 1 FROM refresh_tokens r" +
+                        " WHERE r.access_token_id = t.id AND r.access_token_expires_at = t.expires_at)"), lease);
     }
 }
@@ -0,0 +1,343 @@
+package com.htv.oauth2.service.token;
+
+import com.htv.oauth2.domain.AccessToken;
+import com.htv.oauth2.domain.RefreshToken;
+import com.htv.oauth2.repository.AccessTokenRepository;
+import com.htv.oauth2.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// ============================================
+// Token Write-Behind Queue
+// ============================================
+
+/**
+ * Optional write-behind persistence for issued tokens.
+ * The token endpoint returns once the JWT is signed; a single flusher thread
+ * drains the bounded queue and inserts rows in JDBC batches.
+ * When the queue stays full past the offer timeout the caller persists inline,
+ * so tokens are never dropped. Shutdown waits for the queue to drain.
+ * Queued pairs are indexed by token so a revocation can mark them before they are inserted.
+ */
+@Slf4j
+@ApplicationScoped
+public class TokenWriteBehindQueue {
+
+    @Inject
+    AccessTokenRepository accessTokenRepository;
+
+    @Inject
+    RefreshTokenRepository refreshTokenRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "oauth2.token-write-behind.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "oauth2.token-write-behind.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "oauth2.token-write-behind.flush-interval-ms", defaultValue = "100")
+    long flushIntervalMs;
+
+    @ConfigProperty(name = "oauth2.token-write-behind.offer-timeout-ms", defaultValue = "50")
+    long offerTimeoutMs;
+
+    // Each pending pair is two rows, so a full JDBC batch of each entity per flush
+    @ConfigProperty(name = "quarkus.hibernate-orm.jdbc.statement-batch-size", defaultValue = "20")
+    int batchSize;
+
+    private BlockingQueue<PendingTokens> queue;
+    private final Map<String, PendingTokens> pendingByToken = new ConcurrentHashMap<>();
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter flushedCounter;
+    private Counter inlineFallbackCounter;
+    private Counter failedCounter;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("oauth2.token.write_behind.queue.depth", queue, BlockingQueue::size)
+                .description("Issued tokens waiting to be persisted")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("oauth2.token.write_behind.flush")
+                .description("Time to persist one batch of issued tokens")
+                .register(meterRegistry);
+        flushedCounter = meterRegistry.counter("oauth2.token.write_behind.flushed");
+        inlineFallbackCounter = meterRegistry.counter("oauth2.token.write_behind.inline_fallback");
+        failedCounter = meterRegistry.counter("oauth2.token.write_behind.failed");
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "token-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        log.info("Token write-behind enabled: capacity={}, batch={}, interval={}ms",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue tokens for persistence; refreshToken is null for grants without one,
+     * accessToken is null for stateless access tokens.
+     * Returns false when write-behind is off, shutting down or saturated;
+     * the caller must then persist the tokens itself.
+     */
+    public boolean offer(AccessToken accessToken, RefreshToken refreshToken) {
+        if (!enabled || !running) {
+            return false;
+        }
+
+        // Indexed first so it is revocable as soon as it is queued; if it is not queued after
+        // all, a revocation in between is kept on the entities the caller persists inline
+        PendingTokens pending = new PendingTokens(accessToken, refreshToken);
+        pending.keys().forEach(key -> pendingByToken.put(key, pending));
+        try {
+            if (queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unindex(pending);
+
+        inlineFallbackCounter.increment();
+        log.warn("Token write-behind queue full ({}), persisting inline", queueCapacity);
+        return false;
+    }
+
+    /**
+     * Mark a token that is still queued as revoked so it is inserted revoked.
+     * A queued access token also takes the refresh token issued with it.
+     * Returns false when the token is not queued, i.e. it was never queued or its row
+     * is already committed, so a database lookup made after this call will find it.
+     */
+    public boolean revokePending(String tokenValue) {
+        if (!enabled) {
+            return false;
+        }
+        PendingTokens pending = pendingByToken.get(tokenValue);
+        return pending != null && pending.revoke(tokenValue);
+    }
+
+    /**
+     * Revoke a queued refresh token issued with the given stateless access token
+     */
+    public boolean revokePendingByAccessTokenJti(String jti) {
+        return revokePending(PendingTokens.JTI_KEY + jti);
+    }
+
+    /**
+     * Revoke a queued refresh token issued with the reference token of the given hash
+     */
+    public boolean revokePendingByAccessTokenRef(String tokenHash) {
+        return revokePending(PendingTokens.REF_KEY + tokenHash);
+    }
+
+    private void runFlusher() {
+        List<PendingTokens> batch = new ArrayList<>(batchSize);
+        // Stops only once shut down and drained; never interrupted, so a flush is not cut short
+        while (running || !queue.isEmpty()) {
+            if (queue.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+            try {
+                queue.drainTo(batch, batchSize);
+                flushPending(batch);
+            } catch (Exception e) {
+                log.error("Token write-behind flusher error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Flush drained pairs; a revocation of one of them waits until its row is committed
+     */
+    private void flushPending(List<PendingTokens> batch) {
+        batch.forEach(PendingTokens::startFlush);
+        try {
+            flush(batch);
+        } finally {
+            for (PendingTokens pending : batch) {
+                unindex(pending);
+                pending.finishFlush();
+            }
+        }
+    }
+
+    private void unindex(PendingTokens pending) {
+        pending.keys().forEach(key -> pendingByToken.remove(key, pending));
+    }
+
+    private void flush(List<PendingTokens> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            QuarkusTransaction.requiringNew().run(() -> persistAll(batch));
+            flushedCounter.increment(batch.size());
+        } catch (Exception e) {
+            log.error("Batch persist of {} token pairs failed, retrying one by one", batch.size(), e);
+            for (PendingTokens pending : batch) {
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> persistAll(List.of(pending)));
+                    flushedCounter.increment();
+                } catch (Exception ex) {
+                    failedCounter.increment();
+                    log.error("Failed to persist tokens for client {}", pending.clientId(), ex);
+                }
+            }
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private void persistAll(List<PendingTokens> batch) {
+        // Group by entity so Hibernate can batch each INSERT statement
+        for (PendingTokens pending : batch) {
+            if (pending.accessToken() != null) {
+                accessTokenRepository.persist(pending.accessToken());
+            }
+        }
+        for (PendingTokens pending : batch) {
+            if (pending.refreshToken() != null) {
+                refreshTokenRepository.persist(pending.refreshToken());
+            }
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        if (!enabled || flusher == null) {
+            return;
+        }
+
+        log.info("Flushing {} pending token pairs before shutdown", queue.size());
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(20));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Offers that raced with shutdown, or whatever the flusher could not finish in time
+        List<PendingTokens> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flushPending(remaining);
+        }
+    }
+
+    /**
+     * A queued pair. Revocations lock only the pair, and wait only while its own batch is
+     * being written; after that the row is committed and revocation goes to the database.
+     */
+    static final class PendingTokens {
+
+        // Stateless and reference access tokens have no row; their refresh token is found by jti or hash
+        static final String JTI_KEY = "jti:";
+        static final String REF_KEY = "ref:";
+
+        private final AccessToken accessToken;
+        private final RefreshToken refreshToken;
+        private boolean flushing;
+        private boolean flushed;
+
+        PendingTokens(AccessToken accessToken, RefreshToken refreshToken) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+        }
+
+        AccessToken accessToken() {
+            return accessToken;
+        }
+
+        RefreshToken refreshToken() {
+            return refreshToken;
+        }
+
+        String clientId() {
+            return accessToken != null ? accessToken.getClientId() : refreshToken.getClientId();
+        }
+
+        List<String> keys() {
+            List<String> keys = new ArrayList<>(4);
+            if (accessToken != null) {
+                keys.add(accessToken.getToken());
+            }
+            if (refreshToken != null) {
+                keys.add(refreshToken.getToken());
+                if (refreshToken.getAccessTokenJti() != null) {
+                    keys.add(JTI_KEY + refreshToken.getAccessTokenJti());
+                }
+                if (refreshToken.getAccessTokenRef() != null) {
+                    keys.add(REF_KEY + refreshToken.getAccessTokenRef());
+                }
+            }
+            return keys;
+        }
+
+        synchronized boolean revoke(String key) {
+            while (flushing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (flushed) {
+                return false;
+            }
+            // The refresh token alone, or the access token together with its refresh token
+            if (refreshToken != null) {
+                refreshToken.setRevoked(true);
+            }
+            if (accessToken != null && !(refreshToken != null && key.equals(refreshToken.getToken()))) {
+                accessToken.setRevoked(true);
+            }
+            return true;
+        }
+
+        synchronized void startFlush() {
+            flushing = true;
+        }
+
+        synchronized void finishFlush() {
+            flushing = false;
+            flushed = true;
+            notifyAll();
+        }
+    }
+}
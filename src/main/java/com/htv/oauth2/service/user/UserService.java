@@ -1,5 +1,8 @@
 package com.htv.oauth2.service.user;
 
+import com.htv.oauth2.cache.RateLimitCache;
+import com.htv.oauth2.cache.UserExistenceFilter;
+import com.htv.oauth2.cache.UserExistenceFilter.UserIdentifiersChanged;
 import com.htv.oauth2.domain.MfaConfig;
 import com.htv.oauth2.domain.User;
 import com.htv.oauth2.dto.request.mfa.EnableMfaRequest;
@@ -15,12 +18,15 @@ import com.htv.oauth2.service.email.EmailService;
 import com.htv.oauth2.service.mfa.MfaService;
 import com.htv.oauth2.service.security.PasswordService;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Slf4j
@@ -42,6 +48,24 @@ public class UserService {
     @Inject
     EmailService emailService;
 
+    @Inject
+    UserExistenceFilter userExistenceFilter;
+
+    @Inject
+    Event<UserIdentifiersChanged> userIdentifiersChanged;
+
+    @Inject
+    RateLimitCache rateLimitCache;
+
+    @ConfigProperty(name = "oauth2.rate-limit.lockout.max-attempts", defaultValue = "5")
+    int lockoutMaxAttempts;
+
+    @ConfigProperty(name = "oauth2.rate-limit.lockout.window-seconds", defaultValue = "900")
+    long lockoutWindowSeconds;
+
+    @ConfigProperty(name = "oauth2.rate-limit.lockout.lock-seconds", defaultValue = "900")
+    long lockoutSeconds;
+
     /**
      * Register new user
      * - Tạo user bình thường
@@ -57,11 +81,11 @@ public class UserService {
             throw new ApplicationException(ErrorCode.PASSWORD_MISMATCH);
         }
 
-        // Check duplicates
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // Check duplicates; the existence filter skips the queries for names never seen
+        if (userExistenceFilter.exists(request.getUsername(), userRepository::existsByUsername)) {
             throw new ApplicationException(ErrorCode.USERNAME_ALREADY_EXISTS, request.getUsername());
         }
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (userExistenceFilter.exists(request.getEmail(), userRepository::existsByEmail)) {
             throw new ApplicationException(ErrorCode.EMAIL_ALREADY_EXISTS, request.getEmail());
         }
 
@@ -72,7 +96,7 @@ public class UserService {
         user.setMfaEnabled(false);           // Sẽ cập nhật khi verify MFA thành công
         user.setEmailVerified(true);         // Giả lập đã verify email
         userRepository.persist(user);
-
+        userIdentifiersChanged.fire(new UserIdentifiersChanged(List.of(user.getUsername(), user.getEmail()), List.of()));
 
         MfaConfig mfaConfig = mfaService.generateMfaSecret(user.getId(), request.getUsername(), request.getEmail());
 
@@ -172,13 +196,17 @@ public class UserService {
                 .orElseThrow(() -> new ApplicationException(ErrorCode.USER_NOT_FOUND, userId));
 
         // Check email conflict
-        if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())
-                && userRepository.existsByEmail(request.getEmail())) {
+        String previousEmail = user.getEmail();
+        boolean emailChanged = request.getEmail() != null && !request.getEmail().equals(previousEmail);
+        if (emailChanged && userExistenceFilter.exists(request.getEmail(), userRepository::existsByEmail)) {
             throw new ApplicationException(ErrorCode.EMAIL_ALREADY_EXISTS, request.getEmail());
         }
 
         userMapper.updateUserFromRequest(request, user);
         userRepository.persist(user);
+        if (emailChanged) {
+            userIdentifiersChanged.fire(new UserIdentifiersChanged(List.of(user.getEmail()), List.of(previousEmail)));
+        }
 
         log.info("User updated successfully: {}", userId);
         return userMapper.toResponse(user);
@@ -208,6 +236,7 @@ public class UserService {
         mfaService.disableMfa(userId);
 
         userRepository.delete(user);
+        userIdentifiersChanged.fire(new UserIdentifiersChanged(List.of(), List.of(user.getUsername(), user.getEmail())));
         log.info("User deleted: {}", userId);
     }
 
@@ -245,30 +274,48 @@ public class UserService {
 
     /**
      * Handle failed login attempt (brute-force protection)
+     * Attempts are counted in Redis; the users row is only written when the lock trips.
+     * If Redis is unreachable the attempt is counted on the row instead.
+     * The user must be managed by the caller's transaction.
      */
-    @Transactional
-    public void handleFailedLogin(String username) {
-        userRepository.findByUsername(username).ifPresent(user -> {
+    public void handleFailedLogin(User user) {
+        Optional<Long> attempts = rateLimitCache.recordFailedLogin(user.getId(), lockoutWindowSeconds);
+        if (attempts.isEmpty()) {
             user.incrementFailedLoginAttempts();
-
-            if (user.getFailedLoginAttempts() >= 5) {
-                user.setAccountLockedUntil(Instant.now().plusSeconds(900)); // 15 minutes lock
-                log.warn("Account locked due to failed login attempts: {}", username);
+            if (user.getFailedLoginAttempts() >= lockoutMaxAttempts) {
+                lock(user, user.getFailedLoginAttempts());
             }
-            userRepository.persist(user);
-        });
+            return;
+        }
+
+        if (attempts.get() >= lockoutMaxAttempts && rateLimitCache.lockLogin(user.getId(), lockoutSeconds)) {
+            lock(user, attempts.get().intValue());
+        }
+    }
+
+    private void lock(User user, int attempts) {
+        // Durable copy of the lock, so it survives a Redis flush
+        user.setFailedLoginAttempts(attempts);
+        user.setAccountLockedUntil(Instant.now().plusSeconds(lockoutSeconds));
+        log.warn("Account locked due to failed login attempts: {}", user.getUsername());
+    }
+
+    /**
+     * Whether logins are locked, from the Redis lock or the lock recorded on the row
+     */
+    public boolean isAccountLocked(User user) {
+        return user.isAccountLocked() || rateLimitCache.isLoginLocked(user.getId());
     }
 
     /**
      * Handle successful login
+     * The user must be managed by the caller's transaction; together with a rehash
+     * this is flushed as one UPDATE.
      */
-    @Transactional
-    public void handleSuccessfulLogin(String userId) {
-        User user = userRepository.findByIdOptional(userId)
-                .orElseThrow(() -> new ApplicationException(ErrorCode.USER_NOT_FOUND, userId));
+    public void handleSuccessfulLogin(User user) {
+        rateLimitCache.clearFailedLogins(user.getId());
         user.resetFailedLoginAttempts();
         user.setLastLogin(Instant.now());
-        userRepository.persist(user);
     }
 
     /**
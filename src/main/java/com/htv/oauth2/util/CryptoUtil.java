@@ -13,27 +13,120 @@ import java.util.Base64;
 @ApplicationScoped
 public class CryptoUtil {
 
+    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.ISO_8859_1);
+
+    // Tokens up to this many random bytes are generated into per-stripe scratch buffers
+    private static final int MAX_POOLED_LENGTH = 128;
+
+    /**
+     * One DRBG, digest and scratch space per stripe. Threads are spread over the stripes
+     * by id, so concurrent token generation does not serialize on a single SecureRandom.
+     * Not ThreadLocal: with virtual threads that would mean an instance per request.
+     */
+    private static final class Stripe {
+        final SecureRandom random = newSecureRandom();
+        final MessageDigest sha256 = newSha256();
+        final byte[][] raw = new byte[MAX_POOLED_LENGTH + 1][];
+        final byte[] encoded = new byte[encodedLength(MAX_POOLED_LENGTH)];
+    }
+
     // Lazy initialization for GraalVM Native Image compatibility
-    private static final class SecureRandomHolder {
-        static final SecureRandom INSTANCE = new SecureRandom();
+    private static final class StripesHolder {
+        static final Stripe[] STRIPES = newStripes();
     }
 
-    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static Stripe[] newStripes() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        Stripe[] stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+
+    private static Stripe stripe() {
+        Stripe[] stripes = StripesHolder.STRIPES;
+        long id = Thread.currentThread().threadId();
+        return stripes[(int) (id ^ (id >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            // NIST SP 800-90A DRBG, self-seeded from the platform entropy source
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
 
     /**
-     * Get SecureRandom instance (lazy-initialized)
+     * Fill a fresh array with secure random bytes
      */
-    private static SecureRandom getSecureRandom() {
-        return SecureRandomHolder.INSTANCE;
+    public static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            stripe.random.nextBytes(bytes);
+        }
+        return bytes;
     }
 
     /**
-     * Generate secure random token
+     * Generate secure random token: length random bytes, URL-safe Base64 without padding.
+     * The random bytes and the encoding stay in the stripe's scratch buffers; the only
+     * allocation is the returned String.
      */
     public static String generateSecureToken(int length) {
-        byte[] randomBytes = new byte[length];
-        getSecureRandom().nextBytes(randomBytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        if (length > MAX_POOLED_LENGTH) {
+            return base64Url(randomBytes(length));
+        }
+
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            byte[] raw = stripe.raw[length];
+            if (raw == null) {
+                raw = stripe.raw[length] = new byte[length];
+            }
+            stripe.random.nextBytes(raw);
+            int encodedLength = encodeBase64Url(raw, stripe.encoded);
+            return new String(stripe.encoded, 0, encodedLength, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    private static int encodeBase64Url(byte[] src, byte[] dst) {
+        int full = src.length / 3 * 3;
+        int d = 0;
+        for (int s = 0; s < full; s += 3) {
+            int bits = (src[s] & 0xff) << 16 | (src[s + 1] & 0xff) << 8 | (src[s + 2] & 0xff);
+            dst[d++] = BASE64_URL[bits >>> 18];
+            dst[d++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            dst[d++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            dst[d++] = BASE64_URL[bits & 0x3f];
+        }
+        int remaining = src.length - full;
+        if (remaining > 0) {
+            int bits = (src[full] & 0xff) << 16 | (remaining == 2 ? (src[full + 1] & 0xff) << 8 : 0);
+            dst[d++] = BASE64_URL[bits >>> 18];
+            dst[d++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            if (remaining == 2) {
+                dst[d++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            }
+        }
+        return d;
     }
 
     /**
@@ -62,9 +155,11 @@ public class CryptoUtil {
      */
     public static String generateAlphanumeric(int length) {
         StringBuilder sb = new StringBuilder(length);
-        SecureRandom random = getSecureRandom();
-        for (int i = 0; i < length; i++) {
-            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            for (int i = 0; i < length; i++) {
+                sb.append(CHARACTERS.charAt(stripe.random.nextInt(CHARACTERS.length())));
+            }
         }
         return sb.toString();
     }
@@ -73,12 +168,25 @@ public class CryptoUtil {
      * Hash data using SHA-256
      */
     public static String sha256(String data) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not found", e);
+        return base64Url(sha256Bytes(data));
+    }
+
+    /**
+     * URL-safe Base64 without padding, same encoding as sha256(String)
+     */
+    public static String base64Url(byte[] data) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+    }
+
+    /**
+     * Raw SHA-256 digest, used as fixed-width lookup key for stored tokens
+     */
+    public static byte[] sha256Bytes(String data) {
+        byte[] input = data.getBytes(StandardCharsets.UTF_8);
+        // Reuses the stripe's digest instead of a provider lookup per call; digest() resets it
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            return stripe.sha256.digest(input);
         }
     }
 
@@ -0,0 +1,139 @@
+package com.htv.oauth2.util;
+
+import com.htv.oauth2.config.JwtConfig;
+import io.smallrye.jwt.algorithm.SignatureAlgorithm;
+import io.smallrye.jwt.util.KeyUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jose4j.jwk.JsonWebKey;
+import org.jose4j.jwk.JsonWebKeySet;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
+import org.jose4j.keys.resolvers.VerificationKeyResolver;
+import org.jose4j.lang.HashUtil;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Verification keys published at /.well-known/jwks.json.
+ * The current signing key comes first; additional keys stay published during
+ * rotation so tokens signed by the previous key (or the upcoming one) verify.
+ * The kid is the RFC 7638 thumbprint unless oauth2.jwt.key-id is set.
+ */
+@Slf4j
+@ApplicationScoped
+public class JwtKeySet {
+
+    private static final List<SignatureAlgorithm> SUPPORTED_ALGORITHMS =
+            List.of(SignatureAlgorithm.RS256, SignatureAlgorithm.ES256, SignatureAlgorithm.EDDSA);
+
+    @Inject
+    JwtConfig jwtConfig;
+
+    @ConfigProperty(name = "oauth2.jwt.key-id")
+    Optional<String> configuredKeyId;
+
+    @ConfigProperty(name = "oauth2.jwt.additional-verification-keys")
+    Optional<List<String>> additionalKeyLocations;
+
+    private String currentKeyId;
+    private List<JsonWebKey> keys;
+    private String jwksJson;
+    private String etag;
+
+    @PostConstruct
+    void init() {
+        List<JsonWebKey> loaded = new ArrayList<>();
+
+        PublicJsonWebKey current = toJwk(
+                decode(jwtConfig.getPublicKeyLocation(), jwtConfig.getSignatureAlgorithm()),
+                jwtConfig.getSignatureAlgorithm());
+        configuredKeyId.ifPresent(current::setKeyId);
+        currentKeyId = current.getKeyId();
+        loaded.add(current);
+
+        for (String location : additionalKeyLocations.orElse(List.of())) {
+            PublicJsonWebKey jwk = loadAdditionalKey(location);
+            if (!jwk.getKeyId().equals(currentKeyId)) {
+                loaded.add(jwk);
+            }
+        }
+
+        keys = List.copyOf(loaded);
+        jwksJson = new JsonWebKeySet(keys).toJson(JsonWebKey.OutputControlLevel.PUBLIC_ONLY);
+        // Strong validator: changes exactly when the published key set changes
+        etag = CryptoUtil.sha256(jwksJson);
+
+        log.info("JWKS ready: {} key(s), signing kid={}", keys.size(), currentKeyId);
+    }
+
+    public String getCurrentKeyId() {
+        return currentKeyId;
+    }
+
+    public String getJwksJson() {
+        return jwksJson;
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * Algorithms of all published keys, for the verifier's algorithm constraints
+     */
+    public String[] getAlgorithms() {
+        Set<String> algorithms = new LinkedHashSet<>();
+        keys.forEach(key -> algorithms.add(key.getAlgorithm()));
+        return algorithms.toArray(String[]::new);
+    }
+
+    /**
+     * Resolves the key by kid; tokens issued before kids were stamped are tried against each key
+     */
+    public VerificationKeyResolver getVerificationKeyResolver() {
+        JwksVerificationKeyResolver resolver = new JwksVerificationKeyResolver(keys);
+        resolver.setDisambiguateWithVerifySignature(true);
+        return resolver;
+    }
+
+    private PublicJsonWebKey loadAdditionalKey(String location) {
+        // Previous/next key may use a different algorithm than the current one
+        for (SignatureAlgorithm algorithm : SUPPORTED_ALGORITHMS) {
+            try {
+                return toJwk(KeyUtils.decodePublicKey(KeyUtils.readKeyContent(location), algorithm), algorithm);
+            } catch (Exception e) {
+                log.debug("Key {} is not {}: {}", location, algorithm.getAlgorithm(), e.getMessage());
+            }
+        }
+        throw new IllegalStateException("Unsupported or unreadable verification key: " + location);
+    }
+
+    private PublicKey decode(String location, SignatureAlgorithm algorithm) {
+        try {
+            return KeyUtils.decodePublicKey(KeyUtils.readKeyContent(location), algorithm);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load JWT verification key: " + location, e);
+        }
+    }
+
+    private PublicJsonWebKey toJwk(PublicKey key, SignatureAlgorithm algorithm) {
+        try {
+            PublicJsonWebKey jwk = PublicJsonWebKey.Factory.newPublicJwk(key);
+            jwk.setUse("sig");
+            jwk.setAlgorithm(algorithm.getAlgorithm());
+            jwk.setKeyId(jwk.calculateBase64urlEncodedThumbprint(HashUtil.SHA_256));
+            return jwk;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to build JWK for " + algorithm.getAlgorithm() + " key", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.htv.oauth2.util;
+
+import com.htv.oauth2.config.JwtConfig;
+import io.smallrye.jwt.algorithm.SignatureAlgorithm;
+import io.smallrye.jwt.util.KeyUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.jose4j.jwt.JwtClaims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * Compact JWS signer with the private key parsed once at startup.
+ * The header carries the kid of the current key as published in the JWKS.
+ * Each thread keeps its own initialised Signature, so signing a token is
+ * one update/sign call with no key resolution or provider lookup.
+ */
+@Slf4j
+@ApplicationScoped
+public class JwtSigner {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    @Inject
+    JwtConfig jwtConfig;
+
+    @Inject
+    JwtKeySet jwtKeySet;
+
+    private SignatureAlgorithm algorithm;
+    private PrivateKey privateKey;
+    private String jcaAlgorithm;
+    private String encodedHeader;
+    private ThreadLocal<Signature> signatures;
+
+    @PostConstruct
+    void init() {
+        algorithm = jwtConfig.getSignatureAlgorithm();
+        jcaAlgorithm = toJcaAlgorithm(algorithm);
+
+        try {
+            // readKeyContent resolves file system, classpath: and http locations
+            privateKey = KeyUtils.decodePrivateKey(KeyUtils.readKeyContent(jwtConfig.getPrivateKeyLocation()), algorithm);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load JWT signing key: " + jwtConfig.getPrivateKeyLocation(), e);
+        }
+
+        String header = "{\"alg\":\"" + algorithm.getAlgorithm() + "\",\"typ\":\"JWT\",\"kid\":\""
+                + jwtKeySet.getCurrentKeyId() + "\"}";
+        encodedHeader = BASE64_URL.encodeToString(header.getBytes(StandardCharsets.UTF_8));
+
+        signatures = ThreadLocal.withInitial(this::newSignature);
+
+        log.info("JWT signer ready: {} ({}), kid={}", algorithm.getAlgorithm(), jcaAlgorithm, jwtKeySet.getCurrentKeyId());
+    }
+
+    /**
+     * Serialize and sign claims as a compact JWS
+     */
+    public String sign(JwtClaims claims) {
+        String signingInput = encodedHeader + "." +
+                BASE64_URL.encodeToString(claims.toJson().getBytes(StandardCharsets.UTF_8));
+
+        try {
+            Signature signature = signatures.get();
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + BASE64_URL.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            // Drop this thread's instance in case it is left in a bad state
+            signatures.remove();
+            throw new IllegalStateException("JWT signing failed", e);
+        }
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    private Signature newSignature() {
+        try {
+            Signature signature = Signature.getInstance(jcaAlgorithm);
+            signature.initSign(privateKey);
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialise " + jcaAlgorithm + " signature", e);
+        }
+    }
+
+    private static String toJcaAlgorithm(SignatureAlgorithm algorithm) {
+        return switch (algorithm) {
+            case RS256 -> "SHA256withRSA";
+            // JWS needs the raw R||S form, not DER
+            case ES256 -> "SHA256withECDSAinP1363Format";
+            case EDDSA -> "EdDSA";
+            default -> throw new IllegalArgumentException(
+                    "Unsupported JWT signature algorithm: " + algorithm.getAlgorithm() + " (use RS256, ES256 or EdDSA)");
+        };
+    }
+}
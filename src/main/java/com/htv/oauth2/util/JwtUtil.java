@@ -1,41 +1,68 @@
 package com.htv.oauth2.util;
 
-import io.smallrye.jwt.build.Jwt;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jose4j.jwa.AlgorithmConstraints;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.NumericDate;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
 
 import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 
 @Slf4j
 @ApplicationScoped
 public class JwtUtil {
 
+    private static final String STATELESS_CLAIM = "stateless";
+
     @ConfigProperty(name = "quarkus.smallrye-jwt.issuer")
     String issuer;
 
     @ConfigProperty(name = "oauth2.jwt.access-token-expiry", defaultValue = "3600")
     Long accessTokenExpiry;
 
+    @Inject
+    JwtSigner jwtSigner;
+
+    @Inject
+    JwtKeySet jwtKeySet;
+
+    // Built on first use; JwtConsumer is thread-safe once configured
+    private volatile JwtConsumer accessTokenVerifier;
+
     /**
      * Generate Access Token (JWT)
      */
-    public String generateAccessToken(String userId, String clientId, Set<String> scopes) {
+    public String generateAccessToken(String userId, String username, String clientId, Set<String> scopes) {
         Instant now = Instant.now();
-        Instant expiresAt = now.plusSeconds(accessTokenExpiry);
+        return generateAccessToken(userId, username, clientId, scopes,
+                UUID.randomUUID().toString(), now, now.plusSeconds(accessTokenExpiry), false);
+    }
 
+    /**
+     * Generate Access Token (JWT) with a caller-chosen jti and lifetime.
+     * Stateless tokens carry a "stateless" claim: they have no database row and are
+     * revoked by jti only.
+     */
+    public String generateAccessToken(String userId, String username, String clientId, Set<String> scopes,
+                                      String jti, Instant issuedAt, Instant expiresAt, boolean stateless) {
         try {
-            return Jwt.issuer(issuer)
-                    .subject(userId)
-                    .audience(clientId)
-                    .issuedAt(now)
-                    .expiresAt(expiresAt)
-                    .claim("scope", String.join(" ", scopes))
-                    .claim("client_id", clientId)
-                    .claim("token_type", "access_token")
-                    .jws()
-                    .sign(); // Will use configured private key
+            JwtClaims claims = baseClaims(userId, clientId, issuedAt, expiresAt);
+            claims.setJwtId(jti);
+            claims.setClaim("scope", String.join(" ", scopes));
+            claims.setClaim("client_id", clientId);
+            claims.setClaim("username", username);
+            claims.setClaim("token_type", "access_token");
+            if (stateless) {
+                claims.setClaim(STATELESS_CLAIM, true);
+            }
+            return jwtSigner.sign(claims); // Pre-loaded private key
 
         } catch (Exception e) {
             log.error("Failed to generate access token", e);
@@ -43,6 +70,30 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * Whether verified claims belong to a stateless access token
+     */
+    public static boolean isStateless(JwtClaims claims) {
+        return Boolean.TRUE.equals(claims.getClaimValue(STATELESS_CLAIM));
+    }
+
+    /**
+     * Generate a client_credentials access token; the client is the subject and there is no user
+     */
+    public String generateClientAccessToken(String clientId, Set<String> scopes, Instant issuedAt, Instant expiresAt) {
+        try {
+            JwtClaims claims = baseClaims(clientId, clientId, issuedAt, expiresAt);
+            claims.setClaim("scope", String.join(" ", scopes));
+            claims.setClaim("client_id", clientId);
+            claims.setClaim("token_type", "access_token");
+            return jwtSigner.sign(claims);
+
+        } catch (Exception e) {
+            log.error("Failed to generate client access token", e);
+            throw new RuntimeException("Token generation failed", e);
+        }
+    }
+
     /**
      * Generate ID Token
      */
@@ -51,22 +102,28 @@ public class JwtUtil {
         Instant expiresAt = now.plusSeconds(accessTokenExpiry);
 
         try {
-            return Jwt.issuer(issuer)
-                    .subject(userId)
-                    .audience(clientId)
-                    .issuedAt(now)
-                    .expiresAt(expiresAt)
-                    .claim("email", email)
-                    .claim("name", name)
-                    .claim("email_verified", true)
-                    .jws()
-                    .sign();
+            JwtClaims claims = baseClaims(userId, clientId, now, expiresAt);
+            claims.setClaim("email", email);
+            claims.setClaim("name", name);
+            claims.setClaim("email_verified", true);
+            return jwtSigner.sign(claims);
         } catch (Exception e) {
             log.error("Failed to sign ID token: {}", e.getMessage());
             throw new RuntimeException("ID token signing failed", e);
         }
     }
 
+    private JwtClaims baseClaims(String userId, String clientId, Instant issuedAt, Instant expiresAt) {
+        JwtClaims claims = new JwtClaims();
+        claims.setIssuer(issuer);
+        claims.setSubject(userId);
+        claims.setAudience(clientId);
+        claims.setIssuedAt(NumericDate.fromSeconds(issuedAt.getEpochSecond()));
+        claims.setExpirationTime(NumericDate.fromSeconds(expiresAt.getEpochSecond()));
+        claims.setJwtId(UUID.randomUUID().toString());
+        return claims;
+    }
+
     public String generateRefreshToken() {
         return CryptoUtil.generateSecureToken(64);
     }
@@ -75,4 +132,32 @@ public class JwtUtil {
         if (token == null || token.trim().isEmpty()) return false;
         return token.split("\\.").length == 3;
     }
-}
\ No newline at end of file
+
+    /**
+     * Verify signature, issuer and expiry of an access token against the published key set.
+     * Throws InvalidJwtException when the token is not a valid, unexpired token of ours.
+     */
+    public JwtClaims verifyAccessToken(String token) throws InvalidJwtException {
+        return getAccessTokenVerifier().processToClaims(token);
+    }
+
+    private JwtConsumer getAccessTokenVerifier() {
+        if (accessTokenVerifier == null) {
+            synchronized (this) {
+                if (accessTokenVerifier == null) {
+                    accessTokenVerifier = new JwtConsumerBuilder()
+                            .setRequireExpirationTime()
+                            .setExpectedIssuer(issuer)
+                            // Audience is the requesting client, checked by the caller if needed
+                            .setSkipDefaultAudienceValidation()
+                            // Any key still in the JWKS, selected by kid
+                            .setVerificationKeyResolver(jwtKeySet.getVerificationKeyResolver())
+                            .setJwsAlgorithmConstraints(AlgorithmConstraints.ConstraintType.PERMIT,
+                                    jwtKeySet.getAlgorithms())
+                            .build();
+                }
+            }
+        }
+        return accessTokenVerifier;
+    }
+}
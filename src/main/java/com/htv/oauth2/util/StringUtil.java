@@ -1,5 +1,6 @@
 package com.htv.oauth2.util;
 
+import java.util.Locale;
 import java.util.Set;
 
 public class StringUtil {
@@ -60,4 +61,18 @@ public class StringUtil {
         }
         return str.substring(0, maxLength) + "...";
     }
+
+    /**
+     * Normalize a username or email for case-insensitive comparison
+     */
+    public static String normalizeLoginIdentifier(String identifier) {
+        return identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether a login identifier is an email; usernames cannot contain '@'
+     */
+    public static boolean isEmailIdentifier(String identifier) {
+        return identifier.indexOf('@') >= 0;
+    }
 }
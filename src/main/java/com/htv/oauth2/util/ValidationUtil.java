@@ -1,5 +1,6 @@
 package com.htv.oauth2.util;
 
+import com.htv.oauth2.service.scope.ScopeSet;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.Set;
@@ -105,6 +106,10 @@ public class ValidationUtil {
         if (requestedScopes == null || requestedScopes.isEmpty()) {
             return true;
         }
+        if (allowedScopes instanceof ScopeSet allowed && requestedScopes instanceof ScopeSet requested) {
+            return allowed.containsAll(requested); // bitset subset check
+        }
+        // Client scopes are a ScopeSet, so this is one id lookup and bit test per requested scope
         return allowedScopes != null && allowedScopes.containsAll(requestedScopes);
     }
 }
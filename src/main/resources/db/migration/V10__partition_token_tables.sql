@@ -0,0 +1,158 @@
+-- ============================================
+-- V10__partition_token_tables.sql
+-- Range-partition access_tokens / refresh_tokens by expires_at (one partition per day)
+-- so expiry is DETACH + DROP PARTITION instead of a table-wide DELETE
+-- ============================================
+
+-- 1. Partition management function (also called by the maintenance job)
+
+-- Create daily partitions <parent>_pYYYYMMDD for [from_day, to_day]; returns number created
+CREATE OR REPLACE FUNCTION create_token_partitions(parent TEXT, from_day DATE, to_day DATE)
+    RETURNS INTEGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    cur_day   DATE    := from_day;
+    created   INTEGER := 0;
+    part_name TEXT;
+BEGIN
+    WHILE cur_day <= to_day
+        LOOP
+            part_name := parent || '_p' || to_char(cur_day, 'YYYYMMDD');
+            IF to_regclass(part_name) IS NULL THEN
+                BEGIN
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                                   part_name, parent, cur_day, cur_day + 1);
+                    created := created + 1;
+                EXCEPTION
+                    WHEN check_violation THEN
+                        -- Rows for this day already landed in the default partition
+                        RAISE WARNING 'Cannot create %, %_default holds rows for that day', part_name, parent;
+                END;
+            END IF;
+            cur_day := cur_day + 1;
+        END LOOP;
+    RETURN created;
+END
+$$;
+
+-- 2. Move current tables aside
+ALTER TABLE refresh_tokens RENAME TO refresh_tokens_legacy;
+ALTER TABLE access_tokens RENAME TO access_tokens_legacy;
+
+-- 3. Partitioned tables
+-- Unique constraints must include the partition key, so the PK is (id, expires_at) and the
+-- refresh -> access FK carries the access token's expires_at. Scopes move inline into a
+-- text[] column because access_token_scopes could no longer reference access_tokens(id).
+CREATE TABLE access_tokens
+(
+    id         VARCHAR(36)  NOT NULL,
+    token      TEXT         NOT NULL,
+    token_hash BYTEA        NOT NULL,
+    client_id  VARCHAR(100) NOT NULL,
+    user_id    VARCHAR(36),
+    scopes     TEXT[]       NOT NULL DEFAULT '{}',
+    revoked    BOOLEAN      NOT NULL DEFAULT false,
+    expires_at TIMESTAMP    NOT NULL,
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_access_tokens PRIMARY KEY (id, expires_at),
+    CONSTRAINT fk_access_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) PARTITION BY RANGE (expires_at);
+
+CREATE TABLE refresh_tokens
+(
+    id                      VARCHAR(36)  NOT NULL,
+    token                   VARCHAR(500) NOT NULL,
+    token_hash              BYTEA        NOT NULL,
+    access_token_id         VARCHAR(36)  NOT NULL,
+    access_token_expires_at TIMESTAMP    NOT NULL,
+    client_id               VARCHAR(100) NOT NULL,
+    user_id                 VARCHAR(36)  NOT NULL,
+    revoked                 BOOLEAN      NOT NULL DEFAULT false,
+    expires_at              TIMESTAMP    NOT NULL,
+    created_at              TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id, expires_at),
+    CONSTRAINT fk_refresh_tokens_access_token FOREIGN KEY (access_token_id, access_token_expires_at)
+        REFERENCES access_tokens (id, expires_at) ON DELETE CASCADE,
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) PARTITION BY RANGE (expires_at);
+
+-- Safety net for rows beyond the pre-created range; the maintenance job keeps it empty
+CREATE TABLE access_tokens_default PARTITION OF access_tokens DEFAULT;
+CREATE TABLE refresh_tokens_default PARTITION OF refresh_tokens DEFAULT;
+
+-- 4. Partitions for live data plus a week ahead, then copy it.
+-- Expired access tokens are kept while an unexpired refresh token still points at them.
+DO
+$$
+DECLARE
+    access_from DATE;
+    access_to   DATE;
+    refresh_to  DATE;
+BEGIN
+    SELECT least(min(a.expires_at)::date, current_date), greatest(max(a.expires_at)::date, current_date + 7)
+    INTO access_from, access_to
+    FROM access_tokens_legacy a
+    WHERE a.expires_at > now()
+       OR a.id IN (SELECT r.access_token_id FROM refresh_tokens_legacy r WHERE r.expires_at > now());
+
+    SELECT greatest(max(r.expires_at)::date, current_date + 7)
+    INTO refresh_to
+    FROM refresh_tokens_legacy r
+    WHERE r.expires_at > now();
+
+    PERFORM create_token_partitions('access_tokens', coalesce(access_from, current_date),
+                                    coalesce(access_to, current_date + 7));
+    PERFORM create_token_partitions('refresh_tokens', current_date, coalesce(refresh_to, current_date + 7));
+END
+$$;
+
+INSERT INTO access_tokens (id, token, token_hash, client_id, user_id, scopes, revoked, expires_at, created_at)
+SELECT a.id,
+       a.token,
+       a.token_hash,
+       a.client_id,
+       a.user_id,
+       coalesce((SELECT array_agg(s.scope) FROM access_token_scopes s WHERE s.access_token_id = a.id), '{}'),
+       a.revoked,
+       a.expires_at,
+       a.created_at
+FROM access_tokens_legacy a
+WHERE a.expires_at > now()
+   OR a.id IN (SELECT r.access_token_id FROM refresh_tokens_legacy r WHERE r.expires_at > now());
+
+INSERT INTO refresh_tokens (id, token, token_hash, access_token_id, access_token_expires_at, client_id, user_id,
+                            revoked, expires_at, created_at)
+SELECT r.id,
+       r.token,
+       r.token_hash,
+       r.access_token_id,
+       a.expires_at,
+       r.client_id,
+       r.user_id,
+       r.revoked,
+       r.expires_at,
+       r.created_at
+FROM refresh_tokens_legacy r
+         JOIN access_tokens_legacy a ON a.id = r.access_token_id
+WHERE r.expires_at > now();
+
+-- 5. Drop old tables (frees the index names reused below)
+DROP TABLE refresh_tokens_legacy;
+DROP TABLE access_token_scopes;
+DROP TABLE access_tokens_legacy;
+
+-- 6. Indexes, created on every partition
+-- token_hash is unique per expires_at (partition key must be part of a unique index);
+-- a SHA-256 collision across days is not a practical concern
+CREATE UNIQUE INDEX idx_access_token_token_hash ON access_tokens (token_hash, expires_at);
+CREATE INDEX idx_access_token_user ON access_tokens (user_id);
+CREATE INDEX idx_access_token_revoked ON access_tokens (expires_at) WHERE revoked;
+
+CREATE UNIQUE INDEX idx_refresh_token_token_hash ON refresh_tokens (token_hash, expires_at);
+CREATE INDEX idx_refresh_token_access_token ON refresh_tokens (access_token_id, access_token_expires_at);
+CREATE INDEX idx_refresh_token_user ON refresh_tokens (user_id);
+
+COMMENT ON COLUMN access_tokens.token_hash IS 'SHA-256 of token, used for all lookups';
+COMMENT ON COLUMN refresh_tokens.token_hash IS 'SHA-256 of token, used for all lookups';
+COMMENT ON COLUMN refresh_tokens.access_token_expires_at IS 'Partition key of the referenced access token, part of the FK';
@@ -0,0 +1,62 @@
+-- ============================================
+-- V11__compact_scope_ids.sql
+-- Replace the per-scope side tables with smallint[] columns of scope registry ids
+-- ============================================
+
+-- 1. Registry: append-only, ids never reused (bit positions in the in-memory ScopeSet)
+CREATE TABLE scopes
+(
+    id   SMALLINT PRIMARY KEY CHECK (id >= 0),
+    name VARCHAR(100) UNIQUE NOT NULL
+);
+
+INSERT INTO scopes (id, name)
+SELECT (row_number() OVER (ORDER BY name) - 1)::SMALLINT, name
+FROM (SELECT scope AS name FROM client_scopes
+      UNION
+      SELECT scope FROM authorization_code_scopes
+      UNION
+      SELECT scope FROM user_consent_scopes
+      UNION
+      SELECT unnest(scopes) FROM access_tokens) s;
+
+-- 2. Inline id arrays
+ALTER TABLE oauth2_clients ADD COLUMN scope_ids SMALLINT[] NOT NULL DEFAULT '{}';
+ALTER TABLE authorization_codes ADD COLUMN scope_ids SMALLINT[] NOT NULL DEFAULT '{}';
+ALTER TABLE user_consents ADD COLUMN scope_ids SMALLINT[] NOT NULL DEFAULT '{}';
+ALTER TABLE access_tokens ADD COLUMN scope_ids SMALLINT[] NOT NULL DEFAULT '{}';
+
+-- 3. Backfill
+UPDATE oauth2_clients c
+SET scope_ids = (SELECT array_agg(s.id ORDER BY s.id)
+                 FROM client_scopes cs
+                          JOIN scopes s ON s.name = cs.scope
+                 WHERE cs.client_id = c.id)
+WHERE EXISTS (SELECT 1 FROM client_scopes cs WHERE cs.client_id = c.id);
+
+UPDATE authorization_codes ac
+SET scope_ids = (SELECT array_agg(s.id ORDER BY s.id)
+                 FROM authorization_code_scopes acs
+                          JOIN scopes s ON s.name = acs.scope
+                 WHERE acs.auth_code_id = ac.id)
+WHERE EXISTS (SELECT 1 FROM authorization_code_scopes acs WHERE acs.auth_code_id = ac.id);
+
+UPDATE user_consents uc
+SET scope_ids = (SELECT array_agg(s.id ORDER BY s.id)
+                 FROM user_consent_scopes ucs
+                          JOIN scopes s ON s.name = ucs.scope
+                 WHERE ucs.consent_id = uc.id)
+WHERE EXISTS (SELECT 1 FROM user_consent_scopes ucs WHERE ucs.consent_id = uc.id);
+
+UPDATE access_tokens a
+SET scope_ids = (SELECT array_agg(s.id ORDER BY s.id) FROM scopes s WHERE s.name = ANY (a.scopes))
+WHERE cardinality(a.scopes) > 0;
+
+-- 4. Drop the old representation
+ALTER TABLE access_tokens DROP COLUMN scopes;
+DROP TABLE client_scopes;
+DROP TABLE authorization_code_scopes;
+DROP TABLE user_consent_scopes;
+
+COMMENT ON TABLE scopes IS 'Scope registry; ids are referenced by the scope_ids columns and never reused';
+COMMENT ON COLUMN access_tokens.scope_ids IS 'Granted scopes as scope registry ids';
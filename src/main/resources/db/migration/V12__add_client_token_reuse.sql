@@ -0,0 +1,8 @@
+-- ============================================
+-- V12__add_client_token_reuse.sql
+-- Per-client opt-out of client_credentials token reuse
+-- ============================================
+
+ALTER TABLE oauth2_clients ADD COLUMN client_token_reuse BOOLEAN NOT NULL DEFAULT true;
+
+COMMENT ON COLUMN oauth2_clients.client_token_reuse IS 'Return a cached client_credentials token until near expiry instead of issuing a new one';
@@ -0,0 +1,23 @@
+-- ============================================
+-- V13__stateless_access_tokens.sql
+-- Per-client stateless JWT access tokens: no access_tokens row, revocation by jti deny-list.
+-- Their refresh tokens stay persisted and carry what rotation used to read from the access row.
+-- ============================================
+
+ALTER TABLE oauth2_clients ADD COLUMN access_token_format VARCHAR(20) NOT NULL DEFAULT 'JWT';
+
+-- FK (access_token_id, access_token_expires_at) is not checked when both are NULL
+ALTER TABLE refresh_tokens ALTER COLUMN access_token_id DROP NOT NULL;
+ALTER TABLE refresh_tokens ALTER COLUMN access_token_expires_at DROP NOT NULL;
+ALTER TABLE refresh_tokens ADD COLUMN access_token_jti VARCHAR(36);
+ALTER TABLE refresh_tokens ADD COLUMN scope_ids SMALLINT[];
+
+ALTER TABLE refresh_tokens ADD CONSTRAINT chk_refresh_tokens_access_token
+    CHECK ((access_token_id IS NULL) = (access_token_expires_at IS NULL)
+        AND (access_token_id IS NOT NULL OR access_token_jti IS NOT NULL));
+
+CREATE INDEX idx_refresh_token_access_token_jti ON refresh_tokens (access_token_jti) WHERE access_token_jti IS NOT NULL;
+
+COMMENT ON COLUMN oauth2_clients.access_token_format IS 'JWT (persisted) or STATELESS_JWT (no access_tokens row)';
+COMMENT ON COLUMN refresh_tokens.access_token_jti IS 'jti of the stateless access token issued with this refresh token';
+COMMENT ON COLUMN refresh_tokens.scope_ids IS 'Granted scopes when there is no access_tokens row';
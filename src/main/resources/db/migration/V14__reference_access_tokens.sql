@@ -0,0 +1,18 @@
+-- ============================================
+-- V14__reference_access_tokens.sql
+-- Opaque reference access tokens: metadata only in Redis, no access_tokens row.
+-- The refresh token records the reference token's hash so rotation and revocation can remove it.
+-- ============================================
+
+ALTER TABLE refresh_tokens ADD COLUMN access_token_ref VARCHAR(43);
+
+ALTER TABLE refresh_tokens DROP CONSTRAINT chk_refresh_tokens_access_token;
+ALTER TABLE refresh_tokens ADD CONSTRAINT chk_refresh_tokens_access_token
+    CHECK ((access_token_id IS NULL) = (access_token_expires_at IS NULL)
+        AND (access_token_id IS NOT NULL OR access_token_jti IS NOT NULL OR access_token_ref IS NOT NULL));
+
+CREATE INDEX idx_refresh_token_access_token_ref ON refresh_tokens (access_token_ref) WHERE access_token_ref IS NOT NULL;
+
+COMMENT ON COLUMN oauth2_clients.access_token_format IS 'JWT (persisted), STATELESS_JWT (no access_tokens row) or REFERENCE (opaque, Redis only)';
+COMMENT ON COLUMN refresh_tokens.access_token_ref IS 'SHA-256 (base64url) of the reference access token issued with this refresh token';
+COMMENT ON COLUMN refresh_tokens.scope_ids IS 'Granted scopes when there is no access_tokens row';
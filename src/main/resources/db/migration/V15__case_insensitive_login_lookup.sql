@@ -0,0 +1,37 @@
+-- ============================================
+-- V15__case_insensitive_login_lookup.sql
+-- Usernames and emails are unique and looked up case-insensitively.
+-- Login picks the column from the identifier's shape, so each lookup is one probe on
+-- one of these indexes instead of "username = ? OR email = ?".
+-- ============================================
+
+-- Fail with a clear message rather than a unique violation when existing rows clash,
+-- or rather than locking out users whose username would now be looked up as an email
+DO
+$$
+    DECLARE
+        clashes     BIGINT;
+        email_names BIGINT;
+    BEGIN
+        SELECT (SELECT count(*) FROM (SELECT 1 FROM users GROUP BY lower(username) HAVING count(*) > 1) u)
+                   + (SELECT count(*) FROM (SELECT 1 FROM users GROUP BY lower(email) HAVING count(*) > 1) e)
+        INTO clashes;
+        IF clashes > 0 THEN
+            RAISE EXCEPTION '% usernames/emails differ only in case; merge or rename them before migrating', clashes;
+        END IF;
+
+        SELECT count(*) FROM users WHERE username LIKE '%@%' INTO email_names;
+        IF email_names > 0 THEN
+            RAISE EXCEPTION '% usernames contain @ and could no longer log in by username; rename them before migrating', email_names;
+        END IF;
+    END
+$$;
+
+CREATE UNIQUE INDEX idx_user_username_lower ON users (lower(username));
+CREATE UNIQUE INDEX idx_user_email_lower ON users (lower(email));
+
+-- Exact-match lookups are gone and the UNIQUE constraints keep their own indexes
+DROP INDEX IF EXISTS idx_user_username;
+DROP INDEX IF EXISTS idx_user_email;
+
+ANALYZE users;
@@ -0,0 +1,14 @@
+-- ============================================
+-- V16__job_fences.sql
+-- Highest lease fencing token that has written, per scheduled job (see LeaseService).
+-- A guarded write advances it in its own transaction and is rejected once a newer holder has.
+-- ============================================
+
+CREATE TABLE job_fences
+(
+    name          VARCHAR(100) PRIMARY KEY,
+    fencing_token BIGINT    NOT NULL,
+    updated_at    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE job_fences IS 'Fencing token of the latest lease holder to write, per job';
@@ -0,0 +1,26 @@
+-- ============================================
+-- V9__add_token_hash_columns.sql
+-- Lookup tokens by fixed-width SHA-256 hash instead of the full JWT/refresh string
+-- ============================================
+
+-- 1. Add hash columns
+ALTER TABLE access_tokens ADD COLUMN token_hash BYTEA;
+ALTER TABLE refresh_tokens ADD COLUMN token_hash BYTEA;
+
+-- 2. Backfill existing rows (sha256() is built into PostgreSQL 11+)
+UPDATE access_tokens SET token_hash = sha256(convert_to(token, 'UTF8')) WHERE token_hash IS NULL;
+UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, 'UTF8')) WHERE token_hash IS NULL;
+
+ALTER TABLE access_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+-- 3. Unique 32-byte indexes replace the wide token indexes
+CREATE UNIQUE INDEX idx_access_token_token_hash ON access_tokens (token_hash);
+CREATE UNIQUE INDEX idx_refresh_token_token_hash ON refresh_tokens (token_hash);
+
+DROP INDEX IF EXISTS idx_access_token_token;
+DROP INDEX IF EXISTS idx_refresh_token_token;
+ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS refresh_tokens_token_key;
+
+COMMENT ON COLUMN access_tokens.token_hash IS 'SHA-256 of token, used for all lookups';
+COMMENT ON COLUMN refresh_tokens.token_hash IS 'SHA-256 of token, used for all lookups';
@@ -0,0 +1,71 @@
+package com.htv.oauth2.repository;
+
+import com.htv.oauth2.domain.AccessToken;
+import com.htv.oauth2.domain.User;
+import com.htv.oauth2.service.token.TokenService;
+import com.htv.oauth2.support.PostgresRedisTestResource;
+import com.htv.oauth2.support.TestUsers;
+import com.htv.oauth2.util.CryptoUtil;
+import com.htv.oauth2.util.JwtUtil;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(PostgresRedisTestResource.class)
+class AccessTokenRepositoryTest {
+
+    @Inject
+    AccessTokenRepository accessTokenRepository;
+
+    @Inject
+    TokenService tokenService;
+
+    @Inject
+    JwtUtil jwtUtil;
+
+    @Inject
+    TestUsers testUsers;
+
+    /**
+     * Rows written before issuance truncated to seconds and used the client's validity for exp:
+     * the JWT exp came from the global 3600s, the row's expires_at from the client, sub-second
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {300, 86400})
+    void legacyRowWithClientValidityIsFoundAndRevoked(int clientValidity) throws Exception {
+        User user = testUsers.create();
+        String token = jwtUtil.generateAccessToken(user.getId(), user.getUsername(), "default-client-id", Set.of("profile"));
+        Instant exp = Instant.ofEpochSecond(jwtUtil.verifyAccessToken(token).getExpirationTime().getValue());
+        Instant rowExpiresAt = Instant.now().plusSeconds(clientValidity);
+        assertNotEquals(exp.getEpochSecond(), rowExpiresAt.getEpochSecond());
+
+        QuarkusTransaction.requiringNew().run(() -> accessTokenRepository.persist(AccessToken.builder()
+                .token(token)
+                .clientId("default-client-id")
+                .user(user)
+                .scopes(Set.of("profile"))
+                .expiresAt(rowExpiresAt)
+                .build()));
+
+        assertTrue(QuarkusTransaction.requiringNew().call(() -> accessTokenRepository.findByToken(token, exp)).isPresent());
+        assertEquals(1, QuarkusTransaction.requiringNew().call(() -> accessTokenRepository.findByTokens(Map.of(token, exp))).size());
+
+        tokenService.revokeToken(token);
+
+        AccessToken row = QuarkusTransaction.requiringNew().call(() ->
+                accessTokenRepository.find("tokenHash", (Object) CryptoUtil.sha256Bytes(token)).firstResult());
+        assertTrue(row.getRevoked(), "revocation reaches the row");
+    }
+}
@@ -0,0 +1,99 @@
+package com.htv.oauth2.repository;
+
+import com.htv.oauth2.support.PostgresRedisTestResource;
+import com.htv.oauth2.support.SqlCapture;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query-plan regression check for the login lookup: against the Flyway schema with enough
+ * users that a scan would lose, both shapes of findByLoginIdentifier must be a single
+ * Index Scan on their lower() index (V15), with no Seq Scan and no BitmapOr.
+ * Uses a generic plan, as the JDBC driver does once a statement is server-prepared.
+ */
+@QuarkusTest
+@QuarkusTestResource(PostgresRedisTestResource.class)
+class UserRepositoryTest {
+
+    private static final int USERS = 1_000_000;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    SqlCapture sqlCapture;
+
+    @Inject
+    DataSource dataSource;
+
+    @Test
+    void loginLookupsUseLowerIndexes() throws SQLException {
+        seedUsers();
+        try {
+            assertIndexScan("Plan_" + USERS / 2, "plan_" + USERS / 2, "idx_user_username_lower");
+            assertIndexScan("Plan." + USERS / 2 + "@Example.com", "plan." + USERS / 2 + "@example.com",
+                    "idx_user_email_lower");
+        } finally {
+            execute("DELETE FROM users WHERE username LIKE 'Plan\\_%'");
+        }
+    }
+
+    private void assertIndexScan(String identifier, String normalized, String index) throws SQLException {
+        List<String> statements = sqlCapture.capture(() ->
+                QuarkusTransaction.requiringNew().run(() -> assertTrue(
+                        userRepository.findByLoginIdentifier(identifier).isPresent(), identifier)));
+        assertEquals(1, statements.size(), "one statement per lookup: " + statements);
+
+        String plan = explainGeneric(statements.get(0), normalized);
+        assertTrue(plan.contains("Index Scan using " + index), plan);
+        assertFalse(plan.contains("Seq Scan on users"), plan);
+        assertFalse(plan.contains("BitmapOr"), plan);
+    }
+
+    private String explainGeneric(String sql, String parameter) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            statement.execute("PREPARE lookup(text) AS " + sql.replace("?", "$1"));
+            try (ResultSet rows = statement.executeQuery(
+                    "EXPLAIN (COSTS OFF) EXECUTE lookup('" + parameter + "')")) {
+                StringBuilder plan = new StringBuilder();
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+                return plan.toString();
+            } finally {
+                statement.execute("DEALLOCATE lookup");
+                statement.execute("RESET plan_cache_mode");
+            }
+        }
+    }
+
+    private void seedUsers() throws SQLException {
+        execute("""
+                INSERT INTO users (id, username, email, password_hash)
+                SELECT gen_random_uuid()::text, 'Plan_' || g, 'Plan.' || g || '@Example.com', 'x'
+                FROM generate_series(1, %d) g
+                """.formatted(USERS));
+        execute("ANALYZE users");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
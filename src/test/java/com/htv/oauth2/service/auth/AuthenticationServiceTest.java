@@ -0,0 +1,58 @@
+package com.htv.oauth2.service.auth;
+
+import com.htv.oauth2.domain.User;
+import com.htv.oauth2.dto.auth.LoginRequest;
+import com.htv.oauth2.service.AuditService;
+import com.htv.oauth2.support.PostgresRedisTestResource;
+import com.htv.oauth2.support.TestUsers;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+
+@QuarkusTest
+@QuarkusTestResource(PostgresRedisTestResource.class)
+class AuthenticationServiceTest {
+
+    @Inject
+    AuthenticationService authService;
+
+    @Inject
+    TestUsers testUsers;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    // Audit entries are written by a background thread; mocked so only the login's own statements count
+    @InjectMock
+    AuditService auditService;
+
+    @Test
+    void successfulLoginIsOneSelectAndOneUpdate() {
+        User user = testUsers.create();
+        LoginRequest request = LoginRequest.builder()
+                .username(user.getUsername())
+                .password(TestUsers.PASSWORD)
+                .build();
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        User authenticated = authService.authenticateUser(request, "127.0.0.1", "junit");
+
+        assertNotNull(authenticated.getLastLogin());
+        assertEquals(2, statistics.getPrepareStatementCount(), "user SELECT (roles joined) and last-login UPDATE");
+        assertEquals(1, statistics.getEntityUpdateCount());
+        verify(auditService).logSuccess(any(User.class), eq("LOGIN_SUCCESS"), isNull(), eq("127.0.0.1"), eq("junit"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.htv.oauth2.service.token;
+
+import com.htv.oauth2.domain.Client;
+import com.htv.oauth2.domain.User;
+import com.htv.oauth2.dto.response.TokenResponse;
+import com.htv.oauth2.exception.ApplicationException;
+import com.htv.oauth2.exception.ErrorCode;
+import com.htv.oauth2.service.client.ClientService;
+import com.htv.oauth2.service.client.ClientSnapshot;
+import com.htv.oauth2.support.PostgresRedisTestResource;
+import com.htv.oauth2.support.TestUsers;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@QuarkusTest
+@QuarkusTestResource(PostgresRedisTestResource.class)
+class RefreshTokenRotationTest {
+
+    private static final int CONCURRENT_REFRESHES = 16;
+
+    @Inject
+    TokenService tokenService;
+
+    @Inject
+    ClientService clientService;
+
+    @Inject
+    TestUsers testUsers;
+
+    @Test
+    void concurrentRefreshesOfOneTokenRotateExactlyOnce() throws Exception {
+        ClientSnapshot client = clientService.compile(createClient());
+        User user = testUsers.create();
+        String refreshToken = tokenService.generateTokens(user, client, Set.of("profile", "email")).getRefreshToken();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REFRESHES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REFRESHES; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return tokenService.refreshToken(refreshToken, client);
+                    } catch (ApplicationException e) {
+                        return e.getErrorCode();
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<TokenResponse> rotated = new ArrayList<>();
+            List<Object> rejected = new ArrayList<>();
+            for (Future<Object> result : results) {
+                Object outcome = result.get(30, TimeUnit.SECONDS);
+                if (outcome instanceof TokenResponse response) {
+                    rotated.add(response);
+                } else {
+                    rejected.add(outcome);
+                }
+            }
+
+            assertEquals(1, rotated.size(), "exactly one refresh wins");
+            assertNotEquals(refreshToken, rotated.get(0).getRefreshToken());
+            assertEquals(CONCURRENT_REFRESHES - 1, rejected.size());
+            rejected.forEach(code -> assertEquals(ErrorCode.INVALID_TOKEN, code));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Same shape as the login's default client; token rows do not reference the clients table
+    private static Client createClient() {
+        Client client = new Client();
+        client.setClientId("default-client-id");
+        client.setAccessTokenValidity(3600);
+        client.setRefreshTokenValidity(7200);
+        return client;
+    }
+}
@@ -0,0 +1,74 @@
+package com.htv.oauth2.support;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Postgres and Redis in containers plus a throwaway RS256 key pair, so the application
+ * starts as in production (Flyway migrations included) without any external service
+ */
+public class PostgresRedisTestResource implements QuarkusTestResourceLifecycleManager {
+
+    private PostgreSQLContainer<?> postgres;
+    private GenericContainer<?> redis;
+
+    @Override
+    public Map<String, String> start() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+        postgres.start();
+        redis.start();
+
+        Path keys = writeKeyPair();
+        return Map.of(
+                "quarkus.datasource.jdbc.url", postgres.getJdbcUrl(),
+                "quarkus.datasource.username", postgres.getUsername(),
+                "quarkus.datasource.password", postgres.getPassword(),
+                "quarkus.redis.hosts", "redis://" + redis.getHost() + ":" + redis.getMappedPort(6379),
+                "smallrye.jwt.sign.key.location", keys.resolve("private_key.pem").toString(),
+                "mp.jwt.verify.publickey.location", keys.resolve("public_key.pem").toString());
+    }
+
+    @Override
+    public void stop() {
+        if (redis != null) {
+            redis.stop();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    private static Path writeKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+
+            Path dir = Files.createTempDirectory("test-keys");
+            dir.toFile().deleteOnExit();
+            writePem(dir.resolve("private_key.pem"), "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+            writePem(dir.resolve("public_key.pem"), "PUBLIC KEY", keyPair.getPublic().getEncoded());
+            return dir;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create test key pair", e);
+        }
+    }
+
+    private static void writePem(Path file, String type, byte[] der) throws IOException {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        Files.writeString(file, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+        file.toFile().deleteOnExit();
+    }
+}
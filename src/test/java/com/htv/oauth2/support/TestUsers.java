@@ -0,0 +1,48 @@
+package com.htv.oauth2.support;
+
+import com.htv.oauth2.cache.UserExistenceFilter.UserIdentifiersChanged;
+import com.htv.oauth2.domain.User;
+import com.htv.oauth2.repository.UserRepository;
+import com.htv.oauth2.service.security.PasswordService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seeds verified users with a known password, committed and visible to the existence filter
+ */
+@ApplicationScoped
+public class TestUsers {
+
+    public static final String PASSWORD = "correct horse battery staple";
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    PasswordService passwordService;
+
+    @Inject
+    Event<UserIdentifiersChanged> userIdentifiersChanged;
+
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public User create() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password(passwordService.hashPassword(PASSWORD))
+                .emailVerified(true)
+                .build();
+        user.getRoles().add("USER");
+        userRepository.persist(user);
+
+        // Observed after commit, as for a registration
+        userIdentifiersChanged.fire(new UserIdentifiersChanged(List.of(user.getUsername(), user.getEmail()), List.of()));
+        return user;
+    }
+}